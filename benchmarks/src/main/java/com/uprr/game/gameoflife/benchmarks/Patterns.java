@@ -0,0 +1,100 @@
+package com.uprr.game.gameoflife.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.io.RleReader;
+
+/**
+ * Reference patterns the benchmarks tick: small methuselahs, a gun, and
+ * random soups ("soup-0.3" is a 256x256 square at 30% density)
+ *
+ * @author slenagh@up.com
+ *
+ */
+final class Patterns {
+
+	static final String R_PENTOMINO = "x = 3, y = 3\nb2o$2ob$bo!";
+	static final String ACORN = "x = 7, y = 3\nbo5b$3bo3b$2o2b3o!";
+	static final String GOSPER_GUN = "x = 36, y = 9\n24bo$22bobo$12b2o6b2o12b2o$11bo3bo4b2o12b2o$"
+		+ "2o8bo5bo3b2o$2o8bo3bob2o4bobo$10bo5bo7bo$11bo3bo$12b2o!";
+
+	static final String SOUP_PREFIX = "soup-";
+	static final int SOUP_SIZE = 256;
+	private static final long SOUP_SEED = 42;
+
+	// a blinker every BLINKER_PITCH cells among the blocks of a block field
+	private static final int BLOCK_PITCH = 4, BLINKER_PITCH = 64;
+
+	private Patterns() {
+	}
+
+	/**
+	 * Brings the named pattern to life in the game, top left corner at the origin
+	 */
+	static void load(String pattern, Game game) throws IOException {
+
+		if (pattern.startsWith(SOUP_PREFIX)) {
+			seedSoup(Double.parseDouble(pattern.substring(SOUP_PREFIX.length())), game);
+			return;
+		}
+
+		String rle;
+		switch (pattern) {
+		case "r-pentomino":
+			rle = R_PENTOMINO;
+			break;
+		case "acorn":
+			rle = ACORN;
+			break;
+		case "gosper-gun":
+			rle = GOSPER_GUN;
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown pattern: "+pattern);
+		}
+		new RleReader(new StringReader(rle)).read(game, 0, 0);
+	}
+
+	private static void seedSoup(double density, Game game) {
+
+		Random random = new Random(SOUP_SEED);
+		long[] row = new long[SOUP_SIZE];
+		for (int y = 0; y < SOUP_SIZE; y++) {
+			int rowCells = 0;
+			for (int x = 0; x < SOUP_SIZE; x++)
+				if (random.nextDouble() < density)
+					row[rowCells++] = Cell.pack(x, y);
+			game.bringCellsToLife(row, 0, rowCells);
+		}
+	}
+
+	/**
+	 * Brings a size x size field of blocks to life, top left corner at the
+	 * origin, with a blinker in a gap every 64 cells: a big population that
+	 * never settles but changes only at the blinkers
+	 */
+	static void seedBlockField(int size, Game game) {
+
+		long[] cells = new long[size*size/BLOCK_PITCH];
+		int cellCount = 0;
+		for (int y = 0; y < size; y += BLOCK_PITCH)
+			for (int x = 0; x < size; x += BLOCK_PITCH) {
+				if (x % BLINKER_PITCH == 0 && y % BLINKER_PITCH == 0) {
+					cells[cellCount++] = Cell.pack(x + 2, y + 3);
+					cells[cellCount++] = Cell.pack(x + 3, y + 3);
+					cells[cellCount++] = Cell.pack(x + 4, y + 3);
+				}
+				if (x % BLINKER_PITCH < 2*BLOCK_PITCH && y % BLINKER_PITCH < 2*BLOCK_PITCH)
+					continue;	// the blinker's gap
+				cells[cellCount++] = Cell.pack(x, y);
+				cells[cellCount++] = Cell.pack(x + 1, y);
+				cells[cellCount++] = Cell.pack(x, y + 1);
+				cells[cellCount++] = Cell.pack(x + 1, y + 1);
+			}
+		game.bringCellsToLife(cells, 0, cellCount);
+	}
+}
@@ -0,0 +1,68 @@
+package com.uprr.game.gameoflife.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+
+/**
+ * Time to fetch an 80x60 viewport's live cells after a tick, as the grid
+ * does each frame of a running game, for block fields of growing size.  The
+ * viewport stays the same size, so the time should stay flat as the
+ * population grows.  The untimed tick (invocation-level setup) only touches
+ * the field's blinkers under ACTIVE_SET, so it leaves little garbage to
+ * collect during the query.
+ *
+ * @author slenagh@up.com
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RegionQueryBenchmark {
+
+	private static final int VIEWPORT_WIDTH = 80, VIEWPORT_HEIGHT = 60;
+
+	@Param({ "game-active-set", "tiled", "hashlife" })
+	public String engine;
+
+	// about 4,000, 65,000 and 260,000 live cells
+	@Param({ "128", "512", "1024" })
+	public int fieldSize;
+
+	private Game game;
+
+	@Setup(Level.Trial)
+	public void loadField() {
+		game = TickBenchmark.createGame(engine);
+		Patterns.seedBlockField(fieldSize, game);
+		viewport();
+	}
+
+	@Setup(Level.Invocation)
+	public void tick() {
+		game.tick();
+	}
+
+	@Benchmark
+	public List<Cell> viewport() {
+		return game.getLiveCells(fieldSize/2, fieldSize/2, VIEWPORT_WIDTH, VIEWPORT_HEIGHT);
+	}
+}
@@ -0,0 +1,88 @@
+package com.uprr.game.gameoflife.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.uprr.game.gameoflife.BitboardGame;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.PackedGame;
+import com.uprr.game.gameoflife.TiledGame;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+
+/**
+ * Time per Game.tick() for each engine and reference pattern.  Each
+ * operation loads the pattern afresh and ticks it a fixed GENERATIONS
+ * times, so every engine is timed over the same generations (the early,
+ * busy part of the run) however fast it is.
+ *
+ * @author slenagh@up.com
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class TickBenchmark {
+
+	static final int GENERATIONS = 100;
+
+	// the bitboard torus is big enough that the soups don't wrap
+	private static final int TORUS_SIZE = 1024;
+
+	@Param({ "game", "game-active-set", "packed", "tiled", "bitboard", "hashlife" })
+	public String engine;
+
+	@Param({ "r-pentomino", "acorn", "gosper-gun", "soup-0.1", "soup-0.3", "soup-0.5" })
+	public String pattern;
+
+	private Game game;
+
+	@Setup(Level.Invocation)
+	public void loadPattern() throws IOException {
+		game = createGame(engine);
+		Patterns.load(pattern, game);
+	}
+
+	static Game createGame(String engine) {
+		switch (engine) {
+		case "game":
+			return new Game();
+		case "game-active-set":
+			return new Game(Game.TickMode.ACTIVE_SET);
+		case "packed":
+			return new PackedGame();
+		case "tiled":
+			return new TiledGame();
+		case "bitboard":
+			return new BitboardGame(TORUS_SIZE, TORUS_SIZE);
+		case "hashlife":
+			return new HashLifeGame();
+		default:
+			throw new IllegalArgumentException("Unknown engine: "+engine);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(GENERATIONS)
+	public Game tick() {
+		for (int generation = 0; generation < GENERATIONS; generation++)
+			game.tick();
+		return game;
+	}
+}
@@ -0,0 +1,110 @@
+package com.uprr.game.gameoflife;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Bitboards row stepping with the Vector API: the same full-adder logic, but
+ * on as many words per instruction as the CPU's widest vectors hold (4 with
+ * AVX2, 8 with AVX-512).  The first and last words of a row wrap around the
+ * torus, so they (and any tail shorter than a vector) are stepped scalar.
+ *
+ * Only compiled by the "vector" build profile, and only loaded when the JVM
+ * runs with --add-modules jdk.incubator.vector.
+ *
+ * @author slenagh@up.com
+ *
+ */
+final class VectorBitboards implements Bitboards.RowStepper {
+
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	public long stepRow(Rule rule, long[] cells, int northRow, int row, int southRow, int wordsPerRow, long[] nextCells) {
+
+		long population = Bitboards.stepWord(rule, cells, northRow, row, southRow, wordsPerRow, 0, nextCells);
+
+		int word = 1;
+		for (int lastVector = wordsPerRow - 1 - SPECIES.length(); word <= lastVector; word += SPECIES.length()) {
+			LongVector nextWords = nextWords(rule,
+				neighbors(cells, northRow + word), neighbors(cells, row + word), neighbors(cells, southRow + word));
+			nextWords.intoArray(nextCells, row + word);
+			for (int lane = 0; lane < SPECIES.length(); lane++)
+				population += Long.bitCount(nextCells[row + word + lane]);
+		}
+
+		for (; word < wordsPerRow; word++)
+			population += Bitboards.stepWord(rule, cells, northRow, row, southRow, wordsPerRow, word, nextCells);
+
+		return population;
+	}
+
+	/**
+	 * Words from the offset on, and the same shifted so each cell sees its
+	 * western and eastern neighbor
+	 */
+	private static LongVector[] neighbors(long[] cells, int offset) {
+
+		LongVector words = LongVector.fromArray(SPECIES, cells, offset);
+		LongVector westWords = LongVector.fromArray(SPECIES, cells, offset - 1);
+		LongVector eastWords = LongVector.fromArray(SPECIES, cells, offset + 1);
+
+		return new LongVector[] {
+			words.lanewise(VectorOperators.LSHL, 1).or(westWords.lanewise(VectorOperators.LSHR, 63)),
+			words,
+			words.lanewise(VectorOperators.LSHR, 1).or(eastWords.lanewise(VectorOperators.LSHL, 63))
+		};
+	}
+
+	private static LongVector nextWords(Rule rule, LongVector[] north, LongVector[] middle, LongVector[] south) {
+
+		LongVector center = middle[1], west = middle[0], east = middle[2];
+
+		// each row's neighbors summed to a two bit count
+		LongVector northOnes = xor(xor(north[0], north[1]), north[2]);
+		LongVector northTwos = north[0].and(north[1]).or(north[2].and(xor(north[0], north[1])));
+		LongVector middleOnes = xor(west, east);
+		LongVector middleTwos = west.and(east);
+		LongVector southOnes = xor(xor(south[0], south[1]), south[2]);
+		LongVector southTwos = south[0].and(south[1]).or(south[2].and(xor(south[0], south[1])));
+
+		// ones column of the total, carrying into the twos
+		LongVector count1 = xor(xor(northOnes, middleOnes), southOnes);
+		LongVector onesCarry = northOnes.and(middleOnes).or(southOnes.and(xor(northOnes, middleOnes)));
+
+		// twos column: four weight-two inputs
+		LongVector twosSum = xor(xor(northTwos, middleTwos), southTwos);
+		LongVector twosCarry = northTwos.and(middleTwos).or(southTwos.and(xor(northTwos, middleTwos)));
+		LongVector count2 = xor(twosSum, onesCarry);
+		LongVector foursCarry = twosSum.and(onesCarry);
+
+		LongVector count4 = xor(twosCarry, foursCarry);
+		LongVector count8 = twosCarry.and(foursCarry);
+
+		int births = rule.getBirthMask(), survivals = rule.getSurvivalMask();
+		if (births == Bitboards.CONWAY_BIRTHS && survivals == Bitboards.CONWAY_SURVIVALS)
+			// Conway: born with 3, survives with 2 or 3
+			return count2.and(count4.or(count8).not()).and(count1.or(center));
+
+		// otherwise OR together the cells holding each listed count
+		LongVector born = LongVector.zero(SPECIES), survives = LongVector.zero(SPECIES);
+		for (int neighborCount = 0; neighborCount <= 8; neighborCount++) {
+			int countBit = 1 << neighborCount;
+			if (((births | survivals) & countBit) == 0)
+				continue;
+			LongVector hasCount = ((neighborCount & 1) != 0 ? count1 : count1.not())
+					.and((neighborCount & 2) != 0 ? count2 : count2.not())
+					.and((neighborCount & 4) != 0 ? count4 : count4.not())
+					.and((neighborCount & 8) != 0 ? count8 : count8.not());
+			if ((births & countBit) != 0)
+				born = born.or(hasCount);
+			if ((survivals & countBit) != 0)
+				survives = survives.or(hasCount);
+		}
+		return center.and(survives).or(center.not().and(born));
+	}
+
+	private static LongVector xor(LongVector a, LongVector b) {
+		return a.lanewise(VectorOperators.XOR, b);
+	}
+}
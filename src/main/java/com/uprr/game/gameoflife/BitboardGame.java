@@ -0,0 +1,312 @@
+package com.uprr.game.gameoflife;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Game of Life engine for bounded, dense universes: a width x height torus
+ * stored 64 cells per long (one row word per 64 columns), stepped with
+ * bit-parallel full-adder logic so no per-cell objects or hashing are
+ * involved.  Coordinates outside the torus wrap around.
+ *
+ * The next generation is built into a second buffer and the buffers are
+ * swapped; born and killed cells are worked out from the two buffers only
+ * when asked for.  The buffers are heap arrays here; OffHeapBitboardGame
+ * holds them off-heap.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class BitboardGame extends Game {
+
+	public static final int WORD_BITS = 64;
+
+	private final int width, height, wordsPerRow;
+	private BitboardWords cells, previousCells;
+	private long population;
+	private boolean hasTicked;
+	private final Bitboards.RowStepper rowStepper;
+	// north, center and south rows being stepped, and the stepped center row,
+	// for words that can't be stepped in place
+	private final long[] rows, nextRows;
+	private List<Cell> bornCells, killedCells;
+	// words as the last tick left them, saved by edits made before its changes were asked for
+	private final Map<Long, Long> tickedWords = new HashMap<Long, Long>();
+
+	/**
+	 * @param width columns, a positive multiple of 64
+	 * @param height rows
+	 */
+	public BitboardGame(int width, int height) {
+		this(width, height, Bitboards.fastestRowStepper());
+	}
+
+	BitboardGame(int width, int height, Bitboards.RowStepper rowStepper) {
+		this(width, height, rowStepper, HeapWords::new);
+	}
+
+	/**
+	 * @param newWords makes the storage for a generation's words, given their count
+	 */
+	BitboardGame(int width, int height, Bitboards.RowStepper rowStepper, LongFunction<BitboardWords> newWords) {
+
+		if (width <= 0 || width % WORD_BITS != 0)
+			throw new IllegalArgumentException("Width must be a positive multiple of "+WORD_BITS+": "+width);
+		if (height <= 0)
+			throw new IllegalArgumentException("Height must be positive: "+height);
+
+		this.width = width;
+		this.height = height;
+		this.wordsPerRow = width / WORD_BITS;
+		this.cells = newWords.apply((long)wordsPerRow*height);
+		this.previousCells = newWords.apply((long)wordsPerRow*height);
+		this.rowStepper = rowStepper;
+		boolean isSteppedInPlace = cells.array() != null;
+		this.rows = isSteppedInPlace ? null : new long[3*wordsPerRow];
+		this.nextRows = isSteppedInPlace ? null : new long[3*wordsPerRow];
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Whether rows are stepped with the Vector API (needs the "vector" build
+	 * profile and --add-modules jdk.incubator.vector), rather than a word at
+	 * a time
+	 */
+	public boolean isVectorized() {
+		return rowStepper != Bitboards.SCALAR_ROW_STEPPER;
+	}
+
+	public synchronized List<Cell> getLiveCells() {
+
+		List<Cell> liveCells = new ArrayList<Cell>((int)Math.min(population, Integer.MAX_VALUE));
+		for (long index = 0; index < cells.size(); index++)
+			addCells(liveCells, index, cells.get(index));
+		return Collections.unmodifiableList(liveCells);
+	}
+
+	/**
+	 * getLiveCells() is already a read-only copy
+	 */
+	public List<Cell> getLiveCellsView() {
+		return getLiveCells();
+	}
+
+	/**
+	 * Only reads the words of the region's part of the torus (cells are at
+	 * their coordinates within it, as getLiveCells() reports them)
+	 */
+	public synchronized List<Cell> getLiveCells(int left, int top, int width, int height) {
+
+		checkRegion(width, height);
+		List<Cell> cellList = new ArrayList<Cell>();
+		long firstColumn = Math.max(left, 0), endColumn = Math.min((long)left + width, this.width);
+		int endRow = (int)Math.min((long)top + height, this.height);
+		for (int y = Math.max(top, 0); y < endRow; y++)
+			for (long word = firstColumn / WORD_BITS; word*WORD_BITS < endColumn; word++) {
+				long index = (long)y*wordsPerRow + word;
+				addCells(cellList, index, cells.get(index) & Bitboards.columnMask(word*WORD_BITS, firstColumn, endColumn));
+			}
+		return Collections.unmodifiableList(cellList);
+	}
+
+	/**
+	 * Cells the last tick brought to life, or null before the first tick
+	 */
+	public synchronized List<Cell> getBornCells() {
+		findChanges();
+		return bornCells;
+	}
+
+	/**
+	 * Cells the last tick killed, or null before the first tick
+	 */
+	public synchronized List<Cell> getKilledCells() {
+		findChanges();
+		return killedCells;
+	}
+
+	public synchronized long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Works out the last generation's changes from the previous and current
+	 * buffers (once per generation, on request), with any edited words put
+	 * back as the tick left them while scanning
+	 */
+	private void findChanges() {
+
+		if (bornCells != null || !hasTicked)
+			return;
+
+		swapTickedWords();
+		List<Cell> born = new ArrayList<Cell>(), killed = new ArrayList<Cell>();
+		for (long index = 0; index < cells.size(); index++) {
+			long word = cells.get(index), previousWord = previousCells.get(index);
+			long changed = word ^ previousWord;
+			if (changed != 0) {
+				addCells(born, index, changed & word);
+				addCells(killed, index, changed & previousWord);
+			}
+		}
+		swapTickedWords();
+		tickedWords.clear();
+		bornCells = Collections.unmodifiableList(born);
+		killedCells = Collections.unmodifiableList(killed);
+	}
+
+	private void swapTickedWords() {
+		for (Map.Entry<Long, Long> tickedWord : tickedWords.entrySet()) {
+			long index = tickedWord.getKey();
+			long word = cells.get(index);
+			cells.set(index, tickedWord.getValue());
+			tickedWord.setValue(word);
+		}
+	}
+
+	/**
+	 * Saves the word an edit is about to change, if the last tick's changes
+	 * haven't been worked out yet, so they don't pick the edit up
+	 */
+	private void saveTickedWord(long index) {
+		if (hasTicked && bornCells == null)
+			tickedWords.putIfAbsent(index, cells.get(index));
+	}
+
+	private void addCells(List<Cell> cellList, long index, long bits) {
+
+		int y = (int)(index / wordsPerRow), firstColumn = (int)(index % wordsPerRow) * WORD_BITS;
+		while (bits != 0) {
+			cellList.add(Cell.valueOf(firstColumn + Long.numberOfTrailingZeros(bits), y));
+			bits &= bits - 1;
+		}
+	}
+
+	public synchronized void bringCellToLife(Cell cell) {
+
+		if (isCellAlive(cell))
+			throw new IllegalArgumentException("Cell already alive at this location: "+cell);
+
+		long index = wordIndex(cell.getX(), cell.getY());
+		saveTickedWord(index);
+		cells.set(index, cells.get(index) | bitMask(cell.getX()));
+		population++;
+		cellEdited();
+	}
+
+	public synchronized void killCell(Cell cell) {
+
+		if (!isCellAlive(cell))
+			throw new IllegalArgumentException("No cell alive at this location: "+cell);
+
+		long index = wordIndex(cell.getX(), cell.getY());
+		saveTickedWord(index);
+		cells.set(index, cells.get(index) & ~bitMask(cell.getX()));
+		population--;
+		cellEdited();
+	}
+
+	public synchronized boolean isCellAlive(Cell cell) {
+		return isAlive(cell.getX(), cell.getY());
+	}
+
+	private boolean isAlive(int x, int y) {
+		return (cells.get(wordIndex(x, y)) & bitMask(x)) != 0;
+	}
+
+	private long wordIndex(int x, int y) {
+		return (long)Math.floorMod(y, height)*wordsPerRow + Math.floorMod(x, width)/WORD_BITS;
+	}
+
+	private long bitMask(int x) {
+		return 1L << Math.floorMod(x, width);	// shift distance only uses the low 6 bits
+	}
+
+	public synchronized int getNeighborCountAndDeadCells(Cell cell, Set<Cell> deadNeighbors) {
+
+		int neighborCount = 0;
+
+		for (int x = cell.getX() - 1; x <= cell.getX()+1; x++) {
+			for (int y = cell.getY() - 1; y <= cell.getY()+1; y++)  {
+
+				if (x == cell.getX() && y == cell.getY()) // Don't count myself
+					continue;
+
+				if (isAlive(x, y))
+					neighborCount++;
+				else if (deadNeighbors != null)
+					deadNeighbors.add(Cell.valueOf(Math.floorMod(x, width), Math.floorMod(y, height)));
+			}
+		}
+
+		return neighborCount;
+	}
+
+	public synchronized void tick() {
+
+		long startNanos = System.nanoTime();
+		BitboardWords nextCells = previousCells;
+		long[] cellArray = cells.array(), nextCellArray = nextCells.array();
+		long nextPopulation = 0;
+		Rule rule = getRule();
+
+		for (int y = 0; y < height; y++) {
+
+			int northY = y == 0 ? height - 1 : y - 1;
+			int southY = y == height - 1 ? 0 : y + 1;
+
+			if (cellArray != null) {
+				nextPopulation += rowStepper.stepRow(rule, cellArray, northY*wordsPerRow, y*wordsPerRow, southY*wordsPerRow,
+						wordsPerRow, nextCellArray);
+				continue;
+			}
+			cells.get((long)northY*wordsPerRow, rows, 0, wordsPerRow);
+			cells.get((long)y*wordsPerRow, rows, wordsPerRow, wordsPerRow);
+			cells.get((long)southY*wordsPerRow, rows, 2*wordsPerRow, wordsPerRow);
+			nextPopulation += rowStepper.stepRow(rule, rows, 0, wordsPerRow, 2*wordsPerRow, wordsPerRow, nextRows);
+			nextCells.put((long)y*wordsPerRow, nextRows, wordsPerRow, wordsPerRow);
+		}
+
+		previousCells = cells;
+		cells = nextCells;
+		population = nextPopulation;
+		hasTicked = true;
+		bornCells = killedCells = null;
+		tickedWords.clear();
+		addGenerations(1);
+		// every cell is stepped; births and deaths are only worked out on request
+		recordTick(startNanos, -1, -1, (long)width*height);
+	}
+
+	public synchronized void reset() {
+		super.reset();
+		cells.clear();
+		previousCells.clear();
+		population = 0;
+		bornCells = killedCells = null;
+		tickedWords.clear();
+	}
+
+	/**
+	 * Frees both generations' words; the game can't be used afterwards
+	 */
+	synchronized void closeWords() {
+		cells.close();
+		previousCells.close();
+	}
+
+	synchronized boolean areWordsClosed() {
+		return cells.isClosed();
+	}
+}
@@ -0,0 +1,44 @@
+package com.uprr.game.gameoflife;
+
+/**
+ * Fixed-size array of longs holding BitboardGame's cell words: on the heap
+ * (HeapWords) or off it (OffHeapWords).  Indexed by long, so off-heap words
+ * can pass the 2GB limit of a single array.
+ *
+ * @author slenagh@up.com
+ *
+ */
+interface BitboardWords extends AutoCloseable {
+
+	long size();
+
+	long get(long index);
+
+	void set(long index, long word);
+
+	/**
+	 * Copies length words starting at index into words[offset...]
+	 */
+	void get(long index, long[] words, int offset, int length);
+
+	/**
+	 * Copies words[offset...] into length words starting at index
+	 */
+	void put(long index, long[] words, int offset, int length);
+
+	void clear();
+
+	/**
+	 * The heap array holding the words, so rows can be stepped in place, or
+	 * null when they're held elsewhere (rows are then stepped through copies)
+	 */
+	long[] array();
+
+	/**
+	 * Frees the words' storage; any use afterwards throws an
+	 * IllegalStateException
+	 */
+	void close();
+
+	boolean isClosed();
+}
@@ -0,0 +1,165 @@
+package com.uprr.game.gameoflife;
+
+/**
+ * Bit-parallel (SWAR) Life stepping for rows of 64 cells packed in a long,
+ * where bit n holds column n.  Each neighbor count is summed for all 64 cells
+ * at once with full-adder logic into four bit-planes, and the rule is then
+ * applied to the bit-planes.
+ *
+ * Rows are stepped by the fastest available RowStepper: the Vector API one
+ * (VectorBitboards, only compiled by the "vector" build profile and only
+ * usable with --add-modules jdk.incubator.vector) or the scalar one here.
+ *
+ * @author slenagh@up.com
+ *
+ */
+final class Bitboards {
+
+	/**
+	 * Steps one torus row of words into nextCells, given the offsets of it and
+	 * the rows either side
+	 */
+	interface RowStepper {
+
+		/**
+		 * @return population of the stepped row
+		 */
+		long stepRow(Rule rule, long[] cells, int northRow, int row, int southRow, int wordsPerRow, long[] nextCells);
+	}
+
+	static final RowStepper SCALAR_ROW_STEPPER = Bitboards::stepRow;
+	private static final String VECTOR_ROW_STEPPER = "com.uprr.game.gameoflife.VectorBitboards";
+	private static final RowStepper FASTEST_ROW_STEPPER = loadFastestRowStepper();
+
+	private Bitboards() {
+	}
+
+	static RowStepper fastestRowStepper() {
+		return FASTEST_ROW_STEPPER;
+	}
+
+	private static RowStepper loadFastestRowStepper() {
+
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				return (RowStepper)Class.forName(VECTOR_ROW_STEPPER).getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// not built with the vector profile, or built for a newer JVM
+			}
+		}
+		return SCALAR_ROW_STEPPER;
+	}
+
+	static long stepRow(Rule rule, long[] cells, int northRow, int row, int southRow, int wordsPerRow, long[] nextCells) {
+
+		long population = 0;
+		for (int word = 0; word < wordsPerRow; word++)
+			population += stepWord(rule, cells, northRow, row, southRow, wordsPerRow, word, nextCells);
+		return population;
+	}
+
+	/**
+	 * Steps one word of a torus row, wrapping around at the row ends
+	 *
+	 * @return population of the stepped word
+	 */
+	static int stepWord(Rule rule, long[] cells, int northRow, int row, int southRow, int wordsPerRow, int word, long[] nextCells) {
+
+		int westWord = word == 0 ? wordsPerRow - 1 : word - 1;
+		int eastWord = word == wordsPerRow - 1 ? 0 : word + 1;
+
+		long north = cells[northRow + word], center = cells[row + word], south = cells[southRow + word];
+
+		long nextWord = nextWord(rule, center,
+			west(north, cells[northRow + westWord]), north, east(north, cells[northRow + eastWord]),
+			west(center, cells[row + westWord]), east(center, cells[row + eastWord]),
+			west(south, cells[southRow + westWord]), south, east(south, cells[southRow + eastWord]));
+
+		nextCells[row + word] = nextWord;
+		return Long.bitCount(nextWord);
+	}
+
+	/**
+	 * Row word shifted so each cell sees its western (column - 1) neighbor,
+	 * carrying in bit 63 of the word to the west
+	 */
+	static long west(long word, long westWord) {
+		return (word << 1) | (westWord >>> 63);
+	}
+
+	/**
+	 * Row word shifted so each cell sees its eastern (column + 1) neighbor,
+	 * carrying in bit 0 of the word to the east
+	 */
+	static long east(long word, long eastWord) {
+		return (word >>> 1) | (eastWord << 63);
+	}
+
+	/**
+	 * Bits of the word starting at wordColumn for columns from firstColumn up
+	 * to but not including endColumn, for picking a region's cells out of a
+	 * row of words
+	 */
+	static long columnMask(long wordColumn, long firstColumn, long endColumn) {
+
+		long from = Math.max(firstColumn - wordColumn, 0), to = Math.min(endColumn - wordColumn, 64);
+		if (from >= to)
+			return 0;
+		return (to == 64 ? -1L : (1L << to) - 1) & (-1L << from);
+	}
+
+	static final int CONWAY_BIRTHS = Rule.CONWAY.getBirthMask(), CONWAY_SURVIVALS = Rule.CONWAY.getSurvivalMask();
+
+	/**
+	 * Next generation of a 64 cell word from its eight neighbor words
+	 * (already shifted into line with the center word)
+	 */
+	static long nextWord(Rule rule, long center,
+			long northWest, long north, long northEast,
+			long west, long east,
+			long southWest, long south, long southEast)
+	{
+		// each row's neighbors summed to a two bit count
+		long northOnes = northWest ^ north ^ northEast;
+		long northTwos = (northWest & north) | (northEast & (northWest ^ north));
+		long middleOnes = west ^ east;
+		long middleTwos = west & east;
+		long southOnes = southWest ^ south ^ southEast;
+		long southTwos = (southWest & south) | (southEast & (southWest ^ south));
+
+		// ones column of the total, carrying into the twos
+		long count1 = northOnes ^ middleOnes ^ southOnes;
+		long onesCarry = (northOnes & middleOnes) | (southOnes & (northOnes ^ middleOnes));
+
+		// twos column: four weight-two inputs
+		long twosSum = northTwos ^ middleTwos ^ southTwos;
+		long twosCarry = (northTwos & middleTwos) | (southTwos & (northTwos ^ middleTwos));
+		long count2 = twosSum ^ onesCarry;
+		long foursCarry = twosSum & onesCarry;
+
+		long count4 = twosCarry ^ foursCarry;
+		long count8 = twosCarry & foursCarry;
+
+		int births = rule.getBirthMask(), survivals = rule.getSurvivalMask();
+		if (births == CONWAY_BIRTHS && survivals == CONWAY_SURVIVALS)
+			// Conway: born with 3, survives with 2 or 3
+			return count2 & ~count4 & ~count8 & (count1 | center);
+
+		// otherwise OR together the cells holding each listed count
+		long born = 0, survives = 0;
+		for (int neighborCount = 0; neighborCount <= 8; neighborCount++) {
+			int countBit = 1 << neighborCount;
+			if (((births | survivals) & countBit) == 0)
+				continue;
+			long hasCount = ((neighborCount & 1) != 0 ? count1 : ~count1)
+					& ((neighborCount & 2) != 0 ? count2 : ~count2)
+					& ((neighborCount & 4) != 0 ? count4 : ~count4)
+					& ((neighborCount & 8) != 0 ? count8 : ~count8);
+			if ((births & countBit) != 0)
+				born |= hasCount;
+			if ((survivals & countBit) != 0)
+				survives |= hasCount;
+		}
+		return (center & survives) | (~center & born);
+	}
+}
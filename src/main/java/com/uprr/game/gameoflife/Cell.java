@@ -2,54 +2,97 @@ package com.uprr.game.gameoflife;
 
 /**
  * Cell in Conway's Game of Life
- * 
+ *
+ * Immutable value type: the hash is arithmetic and computed once, so hash
+ * lookups never build strings.  Use valueOf() in hot loops to share instances
+ * for coordinates near the origin.
+ *
  * @author slenagh@up.com
  *
  */
-public class Cell {
-	
+public final class Cell {
+
 	private static final String STRING_FORMAT = "Cell (x=%d, y=%d)";
-	private int x, y;
-	
+
+	// Odd multiplier (2^32 / golden ratio) spreads x across the hash bits
+	private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+	// Flyweight cache window, like Integer's -128..127 cache but in two dimensions
+	private static final int CACHE_LOW = -128, CACHE_HIGH = 127,
+		CACHE_SPAN = CACHE_HIGH - CACHE_LOW + 1;
+	private static final Cell[] CACHE = new Cell[CACHE_SPAN*CACHE_SPAN];
+
+	private final int x, y;
+	private final int hash;
+
 	public Cell() {
-		x = 0;
-		y = 0;
+		this(0, 0);
 	}
-	
+
 	public Cell(int x, int y) {
 		this.x = x;
 		this.y = y;
+		this.hash = x * HASH_MULTIPLIER + y;
+	}
+
+	/**
+	 * Returns a shared instance for hot coordinates near the origin, otherwise a
+	 * new cell.  Racing threads may each create an instance, which is harmless
+	 * since cells are immutable.
+	 */
+	public static Cell valueOf(int x, int y) {
+
+		if (x < CACHE_LOW || x > CACHE_HIGH || y < CACHE_LOW || y > CACHE_HIGH)
+			return new Cell(x, y);
+
+		int index = (x - CACHE_LOW) * CACHE_SPAN + (y - CACHE_LOW);
+		Cell cell = CACHE[index];
+		if (cell == null) {
+			cell = new Cell(x, y);
+			CACHE[index] = cell;
+		}
+		return cell;
+	}
+
+	/**
+	 * Packs coordinates into one long, x in the high 32 bits and y in the low
+	 * 32, for bulk and storage APIs that avoid a Cell per cell
+	 */
+	public static long pack(int x, int y) {
+		return ((long)x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	public static int unpackX(long packedCell) {
+		return (int)(packedCell >> 32);
+	}
+
+	public static int unpackY(long packedCell) {
+		return (int)packedCell;
 	}
 
 	public int getX() {
 		return x;
 	}
-	
+
 	public int getY() {
 		return y;
 	}
-	
-	public void setX(int x) {
-		this.x = x;
-	}
-	
-	public void setY(int y) {
-		this.y = y;
-	}
-	
+
 	public int hashCode() {
-		return toString().hashCode();
+		return hash;
 	}
-	
+
 	public boolean equals(Object o) {
-		if (o == null || !(o instanceof Cell))
+		if (o == this)
+			return true;
+		else if (!(o instanceof Cell))
 			return false;
 		else {
 			Cell otherCell = (Cell)o;
 			return otherCell.x == this.x && otherCell.y == this.y;
 		}
 	}
-	
+
 	public String toString() {
 		return String.format(STRING_FORMAT, x, y);
 	}
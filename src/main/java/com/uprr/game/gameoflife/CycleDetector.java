@@ -0,0 +1,162 @@
+package com.uprr.game.gameoflife;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spots a run settling into a still life or oscillator, so batch runs can
+ * stop instead of ticking a universe whose future is already known.
+ *
+ * Keeps a Zobrist-style hash of the live set (the XOR of a mixed 64-bit key
+ * per live cell), updated from each generation's born and killed cells, and
+ * the hashes of recent generations.  Call observe(game) after each tick (or
+ * jump); once a generation's hash and population match one seen before
+ * under the same rule, the universe is cycling.  Falls back to hashing the
+ * whole live set when the changes don't lead on from the last generation
+ * observed (skipped generations) or cells were edited since (Game.getEditCount()).
+ *
+ * Moving patterns like gliders never repeat exactly, so aren't reported.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class CycleDetector {
+
+	public static final int DEFAULT_HISTORY_SIZE = 1024;
+
+	private final long[] generations, hashes, populations;
+	// most recent history slot for each hash
+	private final Map<Long, Integer> slotsByHash = new HashMap<Long, Integer>();
+	private int nextSlot, historyCount;
+
+	private Rule rule;
+	private long hash, lastGeneration = -1, lastEditCount;
+	private long period, onset = -1;
+
+	public CycleDetector() {
+		this(DEFAULT_HISTORY_SIZE);
+	}
+
+	/**
+	 * @param historySize generations remembered, so the longest period spotted
+	 * 	when observing every generation
+	 */
+	public CycleDetector(int historySize) {
+		if (historySize < 1)
+			throw new IllegalArgumentException("History size must be at least 1: "+historySize);
+		generations = new long[historySize];
+		hashes = new long[historySize];
+		populations = new long[historySize];
+	}
+
+	/**
+	 * Hashes the game's current generation and checks it against recent ones
+	 *
+	 * @return true when the generation repeats one in the history
+	 */
+	public synchronized boolean observe(Game game) {
+
+		synchronized (game) {
+			long generation = game.getGeneration(), population = game.getPopulation(), editCount = game.getEditCount();
+			if (generation < lastGeneration || !game.getRule().equals(rule))
+				reset();	// a different run (or rule), so earlier generations don't predict this one
+			rule = game.getRule();
+
+			List<Cell> bornCells = game.getBornCells(), killedCells = game.getKilledCells();
+			if (lastGeneration >= 0 && game.getChangesFromGeneration() == lastGeneration
+					&& editCount == lastEditCount && bornCells != null && killedCells != null) {
+				hash ^= hash(bornCells);
+				hash ^= hash(killedCells);
+			} else
+				hash = hash(game.getLiveCells());
+			lastGeneration = generation;
+			lastEditCount = editCount;
+
+			Integer slot = slotsByHash.get(hash);
+			if (slot != null && populations[slot] == population && generations[slot] < generation) {
+				// Life is deterministic, so a repeated generation repeats everything after it too
+				long repeatPeriod = generation - generations[slot];
+				if (repeatPeriod != period)
+					onset = generations[slot];	// otherwise the cycle carries on from the same onset
+				period = repeatPeriod;
+			} else {
+				period = 0;
+				onset = -1;
+			}
+			remember(generation, population);
+			return period > 0;
+		}
+	}
+
+	private void remember(long generation, long population) {
+
+		if (historyCount == generations.length) {
+			Integer latestSlot = slotsByHash.get(hashes[nextSlot]);
+			if (latestSlot != null && latestSlot == nextSlot)
+				slotsByHash.remove(hashes[nextSlot]);
+		} else
+			historyCount++;
+
+		generations[nextSlot] = generation;
+		hashes[nextSlot] = hash;
+		populations[nextSlot] = population;
+		slotsByHash.put(hash, nextSlot);
+		nextSlot = (nextSlot + 1) % generations.length;
+	}
+
+	private static long hash(List<Cell> cells) {
+		long hash = 0;
+		for (Cell cell : cells)
+			hash ^= cellKey(cell.getX(), cell.getY());
+		return hash;
+	}
+
+	/**
+	 * Zobrist key for a cell: its packed coordinates through the SplitMix64
+	 * finalizer, so neighboring cells get unrelated keys
+	 */
+	static long cellKey(int x, int y) {
+		long key = Cell.pack(x, y) + 0x9E3779B97F4A7C15L;
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+	/**
+	 * Forgets the history and hash, e.g. before watching another run
+	 */
+	public synchronized void reset() {
+		slotsByHash.clear();
+		nextSlot = historyCount = 0;
+		hash = 0;
+		lastGeneration = -1;
+		lastEditCount = 0;
+		period = 0;
+		onset = -1;
+	}
+
+	/**
+	 * Hash of the last generation observed
+	 */
+	public synchronized long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Generations between repeats, or 0 if the last generation observed
+	 * wasn't a repeat.  A multiple of the true period when generations are
+	 * skipped between observations.
+	 */
+	public synchronized long getPeriod() {
+		return period;
+	}
+
+	/**
+	 * First generation observed in the cycle, or -1 if the last generation
+	 * observed wasn't a repeat
+	 */
+	public synchronized long getOnset() {
+		return onset;
+	}
+}
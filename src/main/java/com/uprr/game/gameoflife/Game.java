@@ -1,8 +1,20 @@
 package com.uprr.game.gameoflife;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Game of Life core game object
@@ -12,27 +24,370 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class Game {
 
-	private List<Cell> liveCells = new CopyOnWriteArrayList<Cell>(new HashSet<Cell>());
+	/**
+	 * How tick() finds the cells that change
+	 */
+	public static enum TickMode {
+		/** Probe the 8 neighbors of every live cell and of every dead neighbor */
+		NEIGHBOR_PROBE,
+		/** Walk live cells once, adding one to each neighbor's count, then apply the rules to the counts */
+		NEIGHBOR_COUNT,
+		/** Split the population into row bands and probe each band on a ForkJoinPool */
+		PARALLEL,
+		/** Only probe the neighborhoods of cells that changed since the last tick, so settled regions cost nothing */
+		ACTIVE_SET
+	}
+	
+	/**
+	 * Largest jump advanceByPowerOfTwo() takes: a HashLife root can be at most
+	 * level 63 (coordinates are longs), and a 2^k generation jump needs a
+	 * root of at least level k+3
+	 */
+	public static final int MAX_LOG2_GENERATIONS = 60;
+	
+	// Bands per pool thread, so uneven bands still keep every thread busy
+	private static final int BANDS_PER_THREAD = 4;
+	
+	// the deprecated Conway checks a subclass can override
+	private static final String[] CONWAY_CHECKS = { "conwayRule1_DoesCellDieOfLoneliness",
+			"conwayRule2_DoesCellDieOfOvercrowding", "conwayRule4_DoesCellHaveEnoughSupportToResurrect" };
+	
+	private TickMode tickMode;
+	private Rule rule = Rule.CONWAY;
+	// the rule ticks apply: rule, or the overridden Conway checks' table under
+	// Conway's rule; worked out by the first tick after the rule is set
+	private Rule tickRule;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private ForkJoinPool forkJoinPool;
+
+	// Hash indexed, so membership checks and births/kills are O(1).  Each tick
+	// builds the next generation into the spare list and swaps the two, so a
+	// generation is published whole and never mutated cell by cell.
+	private volatile LiveCellList liveCells = new LiveCellList();
+	private LiveCellList spareLiveCells = new LiveCellList();
+	// what getLiveCells() hands out: always the current generation, edited through the game
+	private final List<Cell> currentLiveCells = new CurrentLiveCells();
 	private List<Cell> killedCells, bornCells;
+	// Cells born, killed or edited since the last tick: the only places the
+	// spare list can differ from the live one, and the only neighborhoods
+	// the ACTIVE_SET mode needs to look at
+	private final Set<Cell> changedCells = new HashSet<Cell>();
+	private long generation, changesFromGeneration = -1;
+	private long editCount;
+	// live cells by tile for region queries: built by the first one, then
+	// kept up with the births, kills and edits
+	private TileIndex tileIndex;
+	private final TickMetrics tickMetrics = new TickMetrics();
+	// subclasses overriding the deprecated Conway checks still decide Conway ticks with them
+	private final boolean isConwayRuleOverridden = overridesConwayChecks(getClass());
+	
+	public Game() {
+		this(TickMode.NEIGHBOR_PROBE);
+	}
+	
+	public Game(TickMode tickMode) {
+		setTickMode(tickMode);
+	}
+	
+	public TickMode getTickMode() {
+		return tickMode;
+	}
+	
+	/**
+	 * All modes give identical generations.  Engines that override tick()
+	 * with their own algorithm ignore the mode.
+	 */
+	public synchronized void setTickMode(TickMode tickMode) {
+		if (tickMode == null)
+			throw new IllegalArgumentException("Tick mode is required");
+		this.tickMode = tickMode;
+	}
+	
+	public Rule getRule() {
+		return rule;
+	}
+	
+	/**
+	 * Birth/survival rule used from the next tick on (Conway's B3/S23 by default)
+	 */
+	public synchronized void setRule(Rule rule) {
+		if (rule == null)
+			throw new IllegalArgumentException("Rule is required");
+		if (!rule.equals(this.rule))
+			changedCells.addAll(liveCells);	// settled neighborhoods may not be settled under the new rule
+		this.rule = rule;
+		tickRule = null;
+	}
+	
+	public int getParallelism() {
+		return parallelism;
+	}
+	
+	/**
+	 * Threads used by the PARALLEL tick mode (defaults to the processor count)
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be at least 1: "+parallelism);
+		if (forkJoinPool != null && parallelism != this.parallelism) {
+			forkJoinPool.shutdown();
+			forkJoinPool = null;
+		}
+		this.parallelism = parallelism;
+	}
 	
+	/**
+	 * The live cells.  The list follows the game from generation to
+	 * generation, and adding or removing cells through it brings them to
+	 * life or kills them.
+	 */
 	public List<Cell> getLiveCells() {
-		return liveCells;
+		return currentLiveCells;
+	}
+	
+	/**
+	 * Read-only view of the current generation, without copying it.  Edits
+	 * show through, ticks leave it as it is, and the list is recycled for the
+	 * generation after next: after the second tick() from now, using it
+	 * throws a ConcurrentModificationException.  Engines that don't keep a
+	 * list of Cell objects return an unmodifiable getLiveCells().
+	 */
+	public List<Cell> getLiveCellsView() {
+		return liveCells.view();
+	}
+	
+	/**
+	 * The live cells of whichever generation is current, with edits made
+	 * through bringCellToLife() and killCell() so ticks see them
+	 */
+	private class CurrentLiveCells extends AbstractList<Cell>
+		implements RandomAccess
+	{
+		public int size() {
+			return liveCells.size();
+		}
+		
+		public Cell get(int index) {
+			return liveCells.get(index);
+		}
+		
+		public boolean contains(Object o) {
+			return liveCells.contains(o);
+		}
+		
+		public int indexOf(Object o) {
+			return liveCells.indexOf(o);
+		}
+		
+		public int lastIndexOf(Object o) {
+			return indexOf(o);
+		}
+		
+		public Iterator<Cell> iterator() {
+			return liveCells.iterator();
+		}
+		
+		public boolean add(Cell cell) {
+			if (isCellAlive(cell))
+				return false;
+			bringCellToLife(cell);
+			return true;
+		}
+		
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			killCell((Cell)o);
+			return true;
+		}
+		
+		public Cell remove(int index) {
+			Cell cell = get(index);
+			killCell(cell);
+			return cell;
+		}
+		
+		public void clear() {
+			for (Cell cell : liveCells.toArray(new Cell[0]))
+				killCell(cell);
+		}
 	}
 	
+	/**
+	 * Generations ticked since the game was created, reset or loaded (which
+	 * restores the saved generation)
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * For engines that override tick() or advanceByPowerOfTwo()
+	 */
+	protected void addGenerations(long generations) {
+		changesFromGeneration = generation;
+		generation += generations;
+	}
+	
+	/**
+	 * Restores a generation number without ticking, e.g. one a pattern file
+	 * was saved at.  The born and killed cells no longer lead on from a
+	 * known generation (getChangesFromGeneration() is -1).
+	 */
+	public synchronized void setGeneration(long generation) {
+		if (generation < 0)
+			throw new IllegalArgumentException("Generation can't be negative: "+generation);
+		this.generation = generation;
+		changesFromGeneration = -1;
+	}
+	
+	/**
+	 * Generation the born and killed cells lead on from: the one before the
+	 * last tick, or before the last jump on engines that report a whole jump's
+	 * changes.  -1 before the first tick.
+	 */
+	public long getChangesFromGeneration() {
+		return changesFromGeneration;
+	}
+	
+	/**
+	 * Goes up with every edit: cells brought to life or killed other than by
+	 * ticking, and resets (so loads too).  When it hasn't changed between two
+	 * looks at the game, the born and killed cells are the only changes.
+	 */
+	public long getEditCount() {
+		return editCount;
+	}
+	
+	/**
+	 * For engines' edits that don't go through this class
+	 */
+	protected void cellEdited() {
+		editCount++;
+	}
+	
+	/**
+	 * Latency and cell counts of the ticks so far, also publishable over JMX
+	 */
+	public TickMetrics getTickMetrics() {
+		return tickMetrics;
+	}
+	
+	/**
+	 * For engines' tick() or advanceByPowerOfTwo(): records the step started
+	 * at startNanos (System.nanoTime()), with -1 for counts the engine doesn't
+	 * track
+	 */
+	protected void recordTick(long startNanos, long births, long deaths, long candidateCells) {
+		tickMetrics.record(System.nanoTime() - startNanos, getPopulation(), births, deaths, candidateCells);
+	}
+	
+	/**
+	 * Cells the last tick brought to life, or null before the first tick
+	 */
 	public List<Cell> getBornCells() {
 		return bornCells;
 	}
 
+	/**
+	 * Cells the last tick killed, or null before the first tick
+	 */
 	public List<Cell> getKilledCells() {
 		return killedCells;
 	}	
 	
+	/**
+	 * Live cells in the region of width x height cells from (left, top), e.g.
+	 * a viewport, found without walking the whole population.  Here the first
+	 * call sorts the live cells into tiles (a TileIndex), which ticks and
+	 * edits keep up from then on, so each call only looks at the tiles the
+	 * region overlaps; other engines search their own storage the same way.
+	 */
+	public synchronized List<Cell> getLiveCells(int left, int top, int width, int height) {
+		
+		checkRegion(width, height);
+		if (tileIndex == null)
+			tileIndex = new TileIndex(liveCells);
+		
+		List<Cell> cellList = new ArrayList<Cell>();
+		tileIndex.addCellsIn(cellList, left, top, (long)left + width, (long)top + height);
+		return Collections.unmodifiableList(cellList);
+	}
+	
+	/**
+	 * The last tick's born cells in the region (see
+	 * {@link #getLiveCells(int, int, int, int)}), or null when getBornCells() is
+	 */
+	public List<Cell> getBornCells(int left, int top, int width, int height) {
+		checkRegion(width, height);
+		return cellsIn(getBornCells(), left, top, width, height);
+	}
+	
+	/**
+	 * The last tick's killed cells in the region (see
+	 * {@link #getLiveCells(int, int, int, int)}), or null when getKilledCells() is
+	 */
+	public List<Cell> getKilledCells(int left, int top, int width, int height) {
+		checkRegion(width, height);
+		return cellsIn(getKilledCells(), left, top, width, height);
+	}
+	
+	/**
+	 * Whether region queries have started the tile index, so ticks keep it up
+	 */
+	synchronized boolean hasTileIndex() {
+		return tileIndex != null;
+	}
+	
+	protected static void checkRegion(int width, int height) {
+		if (width < 0 || height < 0)
+			throw new IllegalArgumentException("Region size can't be negative: "+width+"x"+height);
+	}
+	
+	private static List<Cell> cellsIn(List<Cell> cells, int left, int top, int width, int height) {
+		
+		if (cells == null)
+			return null;
+		long right = (long)left + width, bottom = (long)top + height;
+		List<Cell> cellList = new ArrayList<Cell>();
+		for (Cell cell : cells)
+			if (cell.getX() >= left && cell.getX() < right && cell.getY() >= top && cell.getY() < bottom)
+				cellList.add(cell);
+		return Collections.unmodifiableList(cellList);
+	}
+	
+	/**
+	 * Number of live cells, without materializing them (engines that don't keep
+	 * Cell objects build getLiveCells() on request)
+	 */
+	public long getPopulation() {
+		return liveCells.size();
+	}
+	
 	public void bringCellToLife(Cell cell) {
 		
 		if (isCellAlive(cell))
 			throw new IllegalArgumentException("Cell already alive at this location: "+cell);
 		
 		liveCells.add(cell);
+		changedCells.add(cell);
+		if (tileIndex != null)
+			tileIndex.add(cell);
+		cellEdited();
+	}
+	
+	/**
+	 * Brings a batch of cells to life, skipping any already alive.  The cells
+	 * are packed with {@link Cell#pack(int, int)}, so engines with packed
+	 * storage can load them without creating Cell objects.
+	 */
+	public void bringCellsToLife(long[] packedCells, int offset, int length) {
+		
+		for (int i = offset; i < offset + length; i++) {
+			Cell cell = Cell.valueOf(Cell.unpackX(packedCells[i]), Cell.unpackY(packedCells[i]));
+			if (!isCellAlive(cell))
+				bringCellToLife(cell);
+		}
 	}
 	
 	public void killCell(Cell cell) {
@@ -41,6 +396,10 @@ public class Game {
 			throw new IllegalArgumentException("No cell alive at this location: "+cell);
 		
 		liveCells.remove(cell);
+		changedCells.add(cell);
+		if (tileIndex != null)
+			tileIndex.remove(cell);
+		cellEdited();
 	}
 	
 	
@@ -58,10 +417,10 @@ public class Game {
 				if (x == cell.getX() && y == cell.getY()) // Don't count myself	
 					continue;
 				
-				Cell adjacentCell = new Cell(x, y);
+				Cell adjacentCell = Cell.valueOf(x, y);
 				if (isCellAlive(adjacentCell))
 					neighborCount++;
-				else if (deadNeighbors != null && !deadNeighbors.contains(adjacentCell))
+				else if (deadNeighbors != null)
 					deadNeighbors.add(adjacentCell);
 			}
 		}
@@ -69,67 +428,407 @@ public class Game {
 		return neighborCount;
 	}
 	
+	/**
+	 * Conway's rule as the overridden Conway checks have it (rules 1 and 2 for
+	 * survival, 4 for births)
+	 */
+	@SuppressWarnings("deprecation")
+	private Rule conwayRuleFromChecks() {
+		
+		int birthMask = 0, survivalMask = 0;
+		for (int neighborCount = 0; neighborCount <= 8; neighborCount++) {
+			if (conwayRule4_DoesCellHaveEnoughSupportToResurrect(neighborCount))
+				birthMask |= 1 << neighborCount;
+			if (!conwayRule1_DoesCellDieOfLoneliness(neighborCount) && !conwayRule2_DoesCellDieOfOvercrowding(neighborCount))
+				survivalMask |= 1 << neighborCount;
+		}
+		return Rule.valueOf(birthMask, survivalMask);
+	}
+	
+	private static boolean overridesConwayChecks(Class<?> gameClass) {
+		for (Class<?> superclass = gameClass; superclass != Game.class; superclass = superclass.getSuperclass())
+			for (String conwayCheck : CONWAY_CHECKS) {
+				try {
+					superclass.getDeclaredMethod(conwayCheck, int.class);
+					return true;
+				} catch (NoSuchMethodException nsme) {
+					// not overridden here
+				}
+			}
+		return false;
+	}
+	
+	/**
+	 * @deprecated use {@link #setRule(Rule)} for other rules.  Game's own
+	 * 	tick modes still follow these (rules 1, 2 and 4, tabulated once per
+	 * 	rule change) under Conway's rule when a subclass overrides any of them;
+	 * 	other engines ignore them.
+	 */
+	@Deprecated
 	protected boolean conwayRule1_DoesCellDieOfLoneliness(int neighborCount) {
 		return neighborCount < 2;
 	}
 	
+	@Deprecated
 	protected boolean conwayRule2_DoesCellDieOfOvercrowding(int neighborCount) {
 		return neighborCount > 3;
 	}	
 
+	@Deprecated
 	protected boolean conwayRule3_DoesSocialCellLiveOn(int neighborCount) {
 		return (neighborCount == 2 || neighborCount == 3);
 	}	
 	
+	@Deprecated
 	protected boolean conwayRule4_DoesCellHaveEnoughSupportToResurrect(int neighborCount) {
 		return neighborCount == 3;
 	}
 	
 	public synchronized void  tick() {
 		
+		long startNanos = System.nanoTime();
+		long candidateCells;
+		List<Cell> cellsToKill = new ArrayList<Cell>();
+		List<Cell> cellsToBirth = new ArrayList<Cell>();
+		
+		LiveCellList nextLiveCells = spareLiveCells;
+		nextLiveCells.recycle();
+		if (tickRule == null)
+			tickRule = isConwayRuleOverridden && rule.equals(Rule.CONWAY) ? conwayRuleFromChecks() : rule;
+		
+		if (tickMode == TickMode.ACTIVE_SET) {
+			candidateCells = findChangesInChangedNeighborhoods(cellsToKill, cellsToBirth);
+			
+			// catch the spare list (a generation behind) up, then apply this generation's changes
+			for (Cell changedCell : changedCells) {
+				if (liveCells.contains(changedCell))
+					nextLiveCells.add(changedCell);
+				else
+					nextLiveCells.remove(changedCell);
+			}
+			for (Cell doomedCell : cellsToKill) {
+				nextLiveCells.remove(doomedCell);
+			}
+		} else {
+			// survivors go straight into the next generation
+			nextLiveCells.clear();
+			
+			if (tickMode == TickMode.NEIGHBOR_COUNT)
+				candidateCells = findChangesByNeighborCounts(nextLiveCells, cellsToKill, cellsToBirth);
+			else if (tickMode == TickMode.PARALLEL)
+				candidateCells = findChangesInParallel(nextLiveCells, cellsToKill, cellsToBirth);
+			else
+				candidateCells = findChangesByNeighborProbes(nextLiveCells, cellsToKill, cellsToBirth);
+		}
+		
+		TickPhaseEvent applyEvent = new TickPhaseEvent();
+		applyEvent.begin();
+
+		// perform births/resurrections :-)
+		for (Cell birthingCell : cellsToBirth) {
+			nextLiveCells.add(birthingCell);
+		}
+		
+		changedCells.clear();
+		changedCells.addAll(cellsToKill);
+		changedCells.addAll(cellsToBirth);
+		if (tileIndex != null) {
+			for (Cell doomedCell : cellsToKill)
+				tileIndex.remove(doomedCell);
+			for (Cell birthingCell : cellsToBirth)
+				tileIndex.add(birthingCell);
+		}
+		
+		// executions are final once the old generation is swapped out :-(
+		spareLiveCells = liveCells;
+		liveCells = nextLiveCells;
+		this.killedCells = cellsToKill;
+		this.bornCells = cellsToBirth;
+		applyEvent.commit(TickPhaseEvent.APPLY_CHANGES, generation, liveCells.size(), cellsToKill.size() + cellsToBirth.size());
+		addGenerations(1);
+		recordTick(startNanos, cellsToBirth.size(), cellsToKill.size(), candidateCells);
+	}
+	
+	/**
+	 * @return the number of cells evaluated
+	 */
+	private long findChangesByNeighborProbes(List<Cell> survivingCells, List<Cell> cellsToKill, List<Cell> cellsToBirth) {
+		
 		Set<Cell> deadNeighborCells = new HashSet<Cell>();
-		List<Cell> cellsToKill = new CopyOnWriteArrayList<Cell>(new HashSet<Cell>());
-		List<Cell> cellsToBirth = new CopyOnWriteArrayList<Cell>(new HashSet<Cell>());
+		TickPhaseEvent phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
 		
 		// see if any live cells no longer have support to continue living
 		for (Cell liveCell : liveCells) {
 
 			int neighborCount = getNeighborCountAndDeadCells(liveCell, deadNeighborCells);			
 			
-			// If cells don't meet Conway's rules for life then schedule their execution
-			if (conwayRule1_DoesCellDieOfLoneliness(neighborCount)
-					|| conwayRule2_DoesCellDieOfOvercrowding(neighborCount))
-					//|| !conwayRule3_DoesSocialCellLiveOn(neighborCount)) <-- Coverage analysis shows this is redundant
+			// If cells don't meet the rule for survival then schedule their execution
+			if (!tickRule.survives(neighborCount))
 			{
 				cellsToKill.add(liveCell);
-			}			
+			}
+			else
+				survivingCells.add(liveCell);
 		}
+		phaseEvent.commit(TickPhaseEvent.COUNT_NEIGHBORS, generation, liveCells.size(), liveCells.size());
 		
+		phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
 		// determine dead/empty cells that have support to come to life
 		for (Cell deadNeighborCell : deadNeighborCells) {
 			
 			int neighborCount = getNeighborCountAndDeadCells(deadNeighborCell, null);
 			
-			if (conwayRule4_DoesCellHaveEnoughSupportToResurrect(neighborCount)) {	
+			if (tickRule.isBorn(neighborCount)) {	
 				cellsToBirth.add(deadNeighborCell);
 			}				
 		}
-
-		// finalize executions :-(
-		for (Cell doomedCell : cellsToKill) {
-			killCell(doomedCell);
+		phaseEvent.commit(TickPhaseEvent.SCAN_DEAD_NEIGHBORS, generation, liveCells.size(), deadNeighborCells.size());
+		
+		return (long)liveCells.size() + deadNeighborCells.size();
+	}
+	
+	/**
+	 * A cell can only change if something in its 3x3 block changed, so only
+	 * those blocks around the changed cells are evaluated
+	 * 
+	 * @return the number of cells evaluated
+	 */
+	private long findChangesInChangedNeighborhoods(List<Cell> cellsToKill, List<Cell> cellsToBirth) {
+		
+		TickPhaseEvent phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+		Set<Cell> cellsToEvaluate = new HashSet<Cell>(changedCells.size()*9);
+		for (Cell changedCell : changedCells) {
+			for (int x = changedCell.getX() - 1; x <= changedCell.getX()+1; x++) {
+				for (int y = changedCell.getY() - 1; y <= changedCell.getY()+1; y++)
+					cellsToEvaluate.add(Cell.valueOf(x, y));
+			}
 		}
-		this.killedCells = cellsToKill;
 		
-		// perform births/resurrections :-)
-		for (Cell birthingCell : cellsToBirth) {
-			bringCellToLife(birthingCell);
+		for (Cell cell : cellsToEvaluate) {
+			
+			int neighborCount = getNeighborCountAndDeadCells(cell, null);
+			
+			if (isCellAlive(cell)) {
+				if (!tickRule.survives(neighborCount))
+					cellsToKill.add(cell);
+			}
+			else if (tickRule.isBorn(neighborCount))
+				cellsToBirth.add(cell);
 		}
-		this.bornCells = cellsToBirth;
+		phaseEvent.commit(TickPhaseEvent.SCAN_CHANGED_NEIGHBORHOODS, generation, liveCells.size(), cellsToEvaluate.size());
+		
+		return cellsToEvaluate.size();
+	}
+	
+	/**
+	 * @return the number of cells evaluated
+	 */
+	private long findChangesByNeighborCounts(List<Cell> survivingCells, List<Cell> cellsToKill, List<Cell> cellsToBirth) {
+		
+		// Counts 1..8 come from Integer's cache, so merging doesn't allocate
+		Map<Cell, Integer> neighborCounts = new HashMap<Cell, Integer>(liveCells.size()*4);
+		TickPhaseEvent phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+		
+		// each live cell adds one to each of its neighbors
+		for (Cell liveCell : liveCells) {
+			for (int x = liveCell.getX() - 1; x <= liveCell.getX()+1; x++) {
+				for (int y = liveCell.getY() - 1; y <= liveCell.getY()+1; y++)  {
+					if (x != liveCell.getX() || y != liveCell.getY())
+						neighborCounts.merge(Cell.valueOf(x, y), 1, Integer::sum);
+				}
+			}
+		}
+		
+		// live cells without any neighbors never made it into the counts
+		for (Cell liveCell : liveCells) {
+			
+			int neighborCount = neighborCounts.getOrDefault(liveCell, 0);
+			
+			if (!tickRule.survives(neighborCount))
+				cellsToKill.add(liveCell);
+			else
+				survivingCells.add(liveCell);
+		}
+		phaseEvent.commit(TickPhaseEvent.COUNT_NEIGHBORS, generation, liveCells.size(), liveCells.size());
 		
+		phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+		for (Map.Entry<Cell, Integer> neighborCount : neighborCounts.entrySet()) {
+			if (tickRule.isBorn(neighborCount.getValue())
+					&& !isCellAlive(neighborCount.getKey()))
+				cellsToBirth.add(neighborCount.getKey());
+		}
+		phaseEvent.commit(TickPhaseEvent.SCAN_DEAD_NEIGHBORS, generation, liveCells.size(), neighborCounts.size());
+		
+		return (long)liveCells.size() + neighborCounts.size();
+	}
+	
+	/**
+	 * Changes found in one row band, merged in band order so the result
+	 * doesn't depend on thread scheduling
+	 */
+	private static class BandChanges {
+		final List<Cell> survivingCells = new ArrayList<Cell>();
+		final List<Cell> cellsToKill = new ArrayList<Cell>(), cellsToBirth = new ArrayList<Cell>();
+		long candidateCells;
+	}
+	
+	/**
+	 * @return the number of cells evaluated
+	 */
+	private long findChangesInParallel(List<Cell> survivingCells, List<Cell> cellsToKill, List<Cell> cellsToBirth) {
+		
+		if (liveCells.isEmpty())
+			return 0;
+		
+		// bands cover one row beyond the population each way, where births can happen
+		int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+		for (Cell liveCell : liveCells) {
+			minY = Math.min(minY, liveCell.getY());
+			maxY = Math.max(maxY, liveCell.getY());
+		}
+		final long firstRow = minY - 1L;
+		long rowCount = maxY - firstRow + 2;
+		int bandCount = (int)Math.min(rowCount, (long)parallelism * BANDS_PER_THREAD);
+		final long bandHeight = (rowCount + bandCount - 1) / bandCount;
+		bandCount = (int)((rowCount + bandHeight - 1) / bandHeight);
+		
+		// each band's live cells, and the live cells in the rows just outside it
+		final List<List<Cell>> bandLiveCells = new ArrayList<List<Cell>>(bandCount);
+		final List<List<Cell>> bandEdgeCells = new ArrayList<List<Cell>>(bandCount);
+		for (int band = 0; band < bandCount; band++) {
+			bandLiveCells.add(new ArrayList<Cell>());
+			bandEdgeCells.add(new ArrayList<Cell>());
+		}
+		for (Cell liveCell : liveCells) {
+			long row = liveCell.getY() - firstRow;
+			int band = (int)(row / bandHeight);
+			bandLiveCells.get(band).add(liveCell);
+			if (row % bandHeight == 0 && band > 0)
+				bandEdgeCells.get(band - 1).add(liveCell);
+			if (row % bandHeight == bandHeight - 1 && band < bandCount - 1)
+				bandEdgeCells.get(band + 1).add(liveCell);
+		}
+		
+		List<Callable<BandChanges>> bandTasks = new ArrayList<Callable<BandChanges>>(bandCount);
+		for (int band = 0; band < bandCount; band++) {
+			final int bandIndex = band;
+			bandTasks.add(() -> findChangesInBand(bandLiveCells.get(bandIndex), bandEdgeCells.get(bandIndex),
+					firstRow + bandIndex*bandHeight, firstRow + (bandIndex+1)*bandHeight));
+		}
+		
+		if (forkJoinPool == null)
+			forkJoinPool = new ForkJoinPool(parallelism);
+		long candidateCells = 0;
+		for (Future<BandChanges> bandChanges : forkJoinPool.invokeAll(bandTasks)) {
+			try {
+				candidateCells += bandChanges.get().candidateCells;
+				survivingCells.addAll(bandChanges.get().survivingCells);
+				cellsToKill.addAll(bandChanges.get().cellsToKill);
+				cellsToBirth.addAll(bandChanges.get().cellsToBirth);
+			} catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while ticking", ie);
+			} catch (ExecutionException ee) {
+				throw new IllegalStateException("Band failed while ticking", ee.getCause());
+			}
+		}
+		return candidateCells;
+	}
+	
+	/**
+	 * Only reads the live cells, so bands can run concurrently.  Dead cells are
+	 * owned by the band holding their row, found from live cells in the band
+	 * or in the rows just above and below it (edgeCells), the only cells of
+	 * the bands either side that neighbor it.
+	 */
+	private BandChanges findChangesInBand(List<Cell> bandCells, List<Cell> edgeCells, long firstRow, long endRow) {
+		
+		BandChanges bandChanges = new BandChanges();
+		Set<Cell> deadNeighborCells = new HashSet<Cell>();
+		TickPhaseEvent phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+		
+		for (Cell liveCell : bandCells) {
+			
+			int neighborCount = getNeighborCountAndDeadCells(liveCell, deadNeighborCells);
+			
+			if (!tickRule.survives(neighborCount))
+				bandChanges.cellsToKill.add(liveCell);
+			else
+				bandChanges.survivingCells.add(liveCell);
+		}
+		for (Cell edgeCell : edgeCells)
+			getNeighborCountAndDeadCells(edgeCell, deadNeighborCells);
+		
+		bandChanges.candidateCells = bandCells.size();
+		phaseEvent.commit(TickPhaseEvent.COUNT_NEIGHBORS, generation, liveCells.size(), bandChanges.candidateCells);
+		
+		phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+		for (Cell deadNeighborCell : deadNeighborCells) {
+			
+			if (deadNeighborCell.getY() < firstRow || deadNeighborCell.getY() >= endRow)
+				continue;
+			
+			bandChanges.candidateCells++;
+			int neighborCount = getNeighborCountAndDeadCells(deadNeighborCell, null);
+			
+			if (tickRule.isBorn(neighborCount))
+				bandChanges.cellsToBirth.add(deadNeighborCell);
+		}
+		phaseEvent.commit(TickPhaseEvent.SCAN_DEAD_NEIGHBORS, generation, liveCells.size(),
+				bandChanges.candidateCells - bandCells.size());
+		
+		return bandChanges;
+	}
+	
+	/**
+	 * Advances 2^log2Generations generations in one call, with the same result
+	 * as that many tick() calls.  Here it simply ticks repeatedly (and the born
+	 * and killed cells are the last generation's); engines like HashLife jump
+	 * there directly and report the changes across the whole jump.
+	 */
+	public void advanceByPowerOfTwo(int log2Generations) {
+		
+		checkLog2Generations(log2Generations);
+		
+		for (long generation = 0; generation < (1L << log2Generations); generation++)
+			tick();
+	}
+	
+	protected static void checkLog2Generations(int log2Generations) {
+		if (log2Generations < 0 || log2Generations > MAX_LOG2_GENERATIONS)
+			throw new IllegalArgumentException("Power of two must be from 0 to "+MAX_LOG2_GENERATIONS+": "+log2Generations);
 	}
 	
 	public void reset() {
 		liveCells.clear();
+		spareLiveCells.clear();
+		changedCells.clear();
+		if (tileIndex != null)
+			tileIndex.clear();
+		generation = 0;
+		changesFromGeneration = -1;
+		cellEdited();
+	}
+	
+	/**
+	 * Writes the live cells, generation and rule to a binary snapshot file
+	 * (see GameSnapshot)
+	 */
+	public synchronized void save(Path snapshotFile) throws IOException {
+		GameSnapshot.write(this, snapshotFile);
+	}
+	
+	/**
+	 * Replaces the universe with the one in a snapshot file written by save()
+	 */
+	public synchronized void load(Path snapshotFile) throws IOException {
+		GameSnapshot.read(snapshotFile, this);
 	}
 }
@@ -0,0 +1,124 @@
+package com.uprr.game.gameoflife;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Binary universe snapshot, written and read through memory-mapped file
+ * regions so loading is bulk copies with no per-cell parsing.  Big-endian
+ * layout:
+ *
+ * <pre>
+ *  0  int   magic "GOLS"
+ *  4  int   format version (1)
+ *  8  long  generation
+ * 16  int   rule birth mask (bit n set when n neighbors give birth)
+ * 20  int   rule survival mask
+ * 24  long  cell count
+ * 32  long  cells, each packed as by Cell.pack(x, y)
+ * </pre>
+ *
+ * @author slenagh@up.com
+ *
+ */
+final class GameSnapshot {
+
+	static final int MAGIC = 0x474F4C53, VERSION = 1;
+	static final int HEADER_BYTES = 32;
+
+	// cells mapped (and copied into the game) this many at a time
+	private static final int BATCH_CELLS = 1 << 16;
+	private static final long REGION_CELLS = (Integer.MAX_VALUE - HEADER_BYTES) / Long.BYTES / BATCH_CELLS * BATCH_CELLS;
+
+	private GameSnapshot() {
+	}
+
+	static void write(Game game, Path snapshotFile) throws IOException {
+
+		List<Cell> liveCells = game.getLiveCells();
+		long cellCount = liveCells.size();
+
+		try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+
+			MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_BYTES);
+			header.putInt(MAGIC).putInt(VERSION).putLong(game.getGeneration())
+				.putInt(game.getRule().getBirthMask()).putInt(game.getRule().getSurvivalMask())
+				.putLong(cellCount);
+
+			long[] batch = new long[BATCH_CELLS];
+			int cellIndex = 0;
+			for (long regionStart = 0; regionStart < cellCount; regionStart += REGION_CELLS) {
+
+				int regionCells = (int)Math.min(REGION_CELLS, cellCount - regionStart);
+				LongBuffer region = channel.map(MapMode.READ_WRITE, HEADER_BYTES + regionStart*Long.BYTES,
+						(long)regionCells*Long.BYTES).asLongBuffer();
+
+				while (region.hasRemaining()) {
+					int batchCells = Math.min(batch.length, region.remaining());
+					for (int i = 0; i < batchCells; i++, cellIndex++) {
+						Cell cell = liveCells.get(cellIndex);
+						batch[i] = Cell.pack(cell.getX(), cell.getY());
+					}
+					region.put(batch, 0, batchCells);
+				}
+			}
+		}
+	}
+
+	static void read(Path snapshotFile, Game game) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+
+			if (channel.size() < HEADER_BYTES)
+				throw new IOException("Not a Game of Life snapshot (too short): "+snapshotFile);
+
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_BYTES);
+			if (header.getInt() != MAGIC)
+				throw new IOException("Not a Game of Life snapshot: "+snapshotFile);
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported snapshot version "+version+": "+snapshotFile);
+			long generation = header.getLong();
+			int birthMask = header.getInt(), survivalMask = header.getInt();
+			long cellCount = header.getLong();
+			// bounded by the file size first, so the byte count can't overflow
+			if (cellCount < 0 || cellCount > (channel.size() - HEADER_BYTES) / Long.BYTES
+					|| channel.size() != HEADER_BYTES + cellCount*Long.BYTES)
+				throw new IOException("Snapshot is truncated or corrupt ("+cellCount+" cells): "+snapshotFile);
+
+			Rule rule;
+			try {
+				rule = Rule.valueOf(birthMask, survivalMask);
+			} catch (IllegalArgumentException iae) {
+				throw new IOException("Snapshot has an unsupported rule: "+snapshotFile, iae);
+			}
+
+			game.reset();
+			game.setRule(rule);
+
+			long[] batch = new long[BATCH_CELLS];
+			for (long regionStart = 0; regionStart < cellCount; regionStart += REGION_CELLS) {
+
+				int regionCells = (int)Math.min(REGION_CELLS, cellCount - regionStart);
+				LongBuffer region = channel.map(MapMode.READ_ONLY, HEADER_BYTES + regionStart*Long.BYTES,
+						(long)regionCells*Long.BYTES).asLongBuffer();
+
+				while (region.hasRemaining()) {
+					int batchCells = Math.min(batch.length, region.remaining());
+					region.get(batch, 0, batchCells);
+					game.bringCellsToLife(batch, 0, batchCells);
+				}
+			}
+
+			game.setGeneration(generation);
+		}
+	}
+}
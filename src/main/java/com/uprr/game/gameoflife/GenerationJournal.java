@@ -0,0 +1,343 @@
+package com.uprr.game.gameoflife;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only record of a run, so any recorded generation can be restored by
+ * loading the nearest keyframe before it and replaying the deltas after it,
+ * rather than re-simulating from generation 0.
+ *
+ * Call record(game) after each tick, or after each jump on engines (like
+ * HashLife) that report the changes across a whole jump.  Every
+ * keyframeInterval generations the whole universe is written as a keyframe;
+ * otherwise just the born and killed cells.  A keyframe is also written when
+ * cells were edited between records (Game.getEditCount()).  Big-endian layout:
+ *
+ * <pre>
+ * journal:  int magic "GOLJ", int version (1), then records of
+ *           byte   'K' keyframe or 'D' delta
+ *           long   generation
+ *           int    rule birth mask, int rule survival mask
+ *           int    payload length, then the deflated payload:
+ *                  keyframe: cells; delta: born cells, then killed cells
+ * index:    long generation, long journal offset, for each keyframe
+ * </pre>
+ *
+ * Cells are written as a count and then, sorted, as gaps between packed
+ * (Cell.pack) cells, both as unsigned varints.  The index is the journal
+ * file's name plus ".idx".
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class GenerationJournal implements AutoCloseable {
+
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 1000;
+
+	static final int MAGIC = 0x474F4C4A, VERSION = 1;
+	static final int HEADER_BYTES = 8, INDEX_ENTRY_BYTES = 16;
+	private static final byte KEYFRAME = 'K', DELTA = 'D';
+	private static final int BATCH_CELLS = 4096;
+
+	private final DataOutputStream journal, index;
+	private final long keyframeInterval;
+	private long offset = HEADER_BYTES;
+	private long lastGeneration = -1, lastKeyframeGeneration, lastEditCount;
+
+	/**
+	 * Starts a new journal (replacing any existing one)
+	 *
+	 * @param keyframeInterval most generations between keyframes
+	 */
+	public GenerationJournal(Path journalFile, long keyframeInterval) throws IOException {
+
+		if (keyframeInterval < 1)
+			throw new IllegalArgumentException("Keyframe interval must be at least 1: "+keyframeInterval);
+
+		this.keyframeInterval = keyframeInterval;
+		this.journal = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(journalFile)));
+		this.index = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile(journalFile))));
+		journal.writeInt(MAGIC);
+		journal.writeInt(VERSION);
+	}
+
+	public GenerationJournal(Path journalFile) throws IOException {
+		this(journalFile, DEFAULT_KEYFRAME_INTERVAL);
+	}
+
+	static Path indexFile(Path journalFile) {
+		return journalFile.resolveSibling(journalFile.getFileName() + ".idx");
+	}
+
+	/**
+	 * Appends the game's current generation: the changes since the last one
+	 * recorded, or a keyframe when due.  A generation already recorded is
+	 * skipped.
+	 */
+	public synchronized void record(Game game) throws IOException {
+
+		synchronized (game) {
+			long generation = game.getGeneration(), editCount = game.getEditCount();
+			if (generation == lastGeneration && editCount == lastEditCount)
+				return;
+
+			List<Cell> bornCells = game.getBornCells(), killedCells = game.getKilledCells();
+			boolean isDeltaUsable = lastGeneration >= 0 && game.getChangesFromGeneration() == lastGeneration
+				&& editCount == lastEditCount
+				&& generation - lastKeyframeGeneration < keyframeInterval
+				&& bornCells != null && killedCells != null;
+
+			if (isDeltaUsable)
+				writeRecord(DELTA, generation, game.getRule(), bornCells, killedCells);
+			else {
+				index.writeLong(generation);
+				index.writeLong(offset);
+				writeRecord(KEYFRAME, generation, game.getRule(), game.getLiveCells(), null);
+				lastKeyframeGeneration = generation;
+			}
+			lastGeneration = generation;
+			lastEditCount = editCount;
+		}
+	}
+
+	/**
+	 * Writes a keyframe of the game's current generation, whatever the interval
+	 */
+	public synchronized void recordKeyframe(Game game) throws IOException {
+		lastGeneration = -1;
+		record(game);
+	}
+
+	private void writeRecord(byte type, long generation, Rule rule, List<Cell> cells, List<Cell> moreCells) throws IOException {
+
+		ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		try (DataOutputStream deflater = new DataOutputStream(new DeflaterOutputStream(payload))) {
+			writeCells(deflater, cells);
+			if (moreCells != null)
+				writeCells(deflater, moreCells);
+		}
+
+		journal.writeByte(type);
+		journal.writeLong(generation);
+		journal.writeInt(rule.getBirthMask());
+		journal.writeInt(rule.getSurvivalMask());
+		journal.writeInt(payload.size());
+		payload.writeTo(journal);
+		offset += 1 + Long.BYTES + 3*Integer.BYTES + payload.size();
+
+		if (type == KEYFRAME)
+			flush();
+	}
+
+	private static void writeCells(DataOutput out, List<Cell> cells) throws IOException {
+
+		long[] packedCells = new long[cells.size()];
+		for (int i = 0; i < packedCells.length; i++)
+			packedCells[i] = Cell.pack(cells.get(i).getX(), cells.get(i).getY());
+		Arrays.sort(packedCells);
+
+		writeVarLong(out, packedCells.length);
+		long previous = Long.MIN_VALUE;
+		for (long packedCell : packedCells) {
+			writeVarLong(out, packedCell - previous);	// unsigned gap, even from MIN_VALUE
+			previous = packedCell;
+		}
+	}
+
+	private static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int)(value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte((int)value);
+	}
+
+	/**
+	 * Pushes what's been recorded so far out to the files
+	 */
+	public synchronized void flush() throws IOException {
+		journal.flush();
+		index.flush();
+	}
+
+	public synchronized void close() throws IOException {
+		try {
+			journal.close();
+		} finally {
+			index.close();
+		}
+	}
+
+	/**
+	 * Replaces the game's universe with the latest recorded generation at or
+	 * before the one asked for.  A record cut short (e.g. by a crash while
+	 * recording) ends the journal.
+	 *
+	 * @return the generation restored
+	 */
+	public static long restore(Path journalFile, long generation, Game game) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			while (header.hasRemaining() && channel.read(header) != -1)
+				;
+			header.flip();
+			if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+				throw new IOException("Not a generation journal: "+journalFile);
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported journal version "+version+": "+journalFile);
+
+			long keyframeOffset = findKeyframe(indexFile(journalFile), generation);
+			if (keyframeOffset < 0)
+				throw new IOException("No keyframe at or before generation "+generation+": "+journalFile);
+
+			channel.position(keyframeOffset);
+			DataInputStream records = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			long restoredGeneration = -1;
+			long[] batch = new long[BATCH_CELLS];
+
+			while (true) {
+				byte type;
+				long recordGeneration;
+				int birthMask, survivalMask;
+				byte[] payload;
+				try {
+					type = records.readByte();
+					recordGeneration = records.readLong();
+					birthMask = records.readInt();
+					survivalMask = records.readInt();
+					payload = new byte[records.readInt()];
+					records.readFully(payload);
+				} catch (EOFException eofe) {
+					break;
+				}
+				if (recordGeneration > generation || (type == KEYFRAME && restoredGeneration >= 0))
+					break;
+
+				Rule rule;
+				try {
+					rule = Rule.valueOf(birthMask, survivalMask);
+				} catch (IllegalArgumentException iae) {
+					throw new IOException("Journal has an unsupported rule at generation "+recordGeneration, iae);
+				}
+
+				try (DataInputStream cells = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+					if (type == KEYFRAME) {
+						game.reset();
+						game.setRule(rule);
+						bringCellsToLife(cells, game, batch);
+					} else if (type == DELTA) {
+						long[] bornCells = readCells(cells);
+						killCells(cells, game);
+						game.bringCellsToLife(bornCells, 0, bornCells.length);
+						game.setRule(rule);
+					} else
+						throw new IOException("Corrupt journal record at generation "+recordGeneration+": "+journalFile);
+				}
+				game.setGeneration(recordGeneration);
+				restoredGeneration = recordGeneration;
+			}
+
+			if (restoredGeneration < 0)
+				throw new IOException("Journal is missing the keyframe its index points to: "+journalFile);
+			return restoredGeneration;
+		}
+	}
+
+	/**
+	 * Binary search of the index for the last keyframe at or before the
+	 * generation
+	 *
+	 * @return its journal offset, or -1 if there's none
+	 */
+	private static long findKeyframe(Path indexFile, long generation) throws IOException {
+
+		try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+
+			ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+			long low = 0, high = index.size() / INDEX_ENTRY_BYTES - 1, offset = -1;
+			while (low <= high) {
+				long middle = (low + high) >>> 1;
+				entry.clear();
+				while (entry.hasRemaining() && index.read(entry, middle*INDEX_ENTRY_BYTES + entry.position()) != -1)
+					;
+				entry.flip();
+				if (entry.getLong() <= generation) {
+					offset = entry.getLong();
+					low = middle + 1;
+				} else
+					high = middle - 1;
+			}
+			return offset;
+		}
+	}
+
+	private static void bringCellsToLife(DataInput in, Game game, long[] batch) throws IOException {
+
+		long cellCount = readVarLong(in), packedCell = Long.MIN_VALUE;
+		int batchSize = 0;
+		for (long i = 0; i < cellCount; i++) {
+			packedCell += readVarLong(in);
+			batch[batchSize++] = packedCell;
+			if (batchSize == batch.length) {
+				game.bringCellsToLife(batch, 0, batchSize);
+				batchSize = 0;
+			}
+		}
+		game.bringCellsToLife(batch, 0, batchSize);
+	}
+
+	private static long[] readCells(DataInput in) throws IOException {
+
+		long cellCount = readVarLong(in), packedCell = Long.MIN_VALUE;
+		if (cellCount > Integer.MAX_VALUE)
+			throw new IOException("Journal delta is too big: "+cellCount+" cells");
+		long[] packedCells = new long[(int)cellCount];
+		for (int i = 0; i < packedCells.length; i++) {
+			packedCell += readVarLong(in);
+			packedCells[i] = packedCell;
+		}
+		return packedCells;
+	}
+
+	private static void killCells(DataInput in, Game game) throws IOException {
+
+		long cellCount = readVarLong(in), packedCell = Long.MIN_VALUE;
+		for (long i = 0; i < cellCount; i++) {
+			packedCell += readVarLong(in);
+			game.killCell(Cell.valueOf(Cell.unpackX(packedCell), Cell.unpackY(packedCell)));
+		}
+	}
+
+	private static long readVarLong(DataInput in) throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Corrupt journal varint");
+	}
+}
@@ -0,0 +1,73 @@
+package com.uprr.game.gameoflife;
+
+import java.util.Arrays;
+
+/**
+ * BitboardWords in a plain long[], at most Integer.MAX_VALUE - 8 words
+ * (16GB) long
+ *
+ * @author slenagh@up.com
+ *
+ */
+final class HeapWords implements BitboardWords {
+
+	// the largest array size VMs reliably allocate
+	private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+	private long[] words;
+
+	HeapWords(long size) {
+
+		if (size < 0)
+			throw new IllegalArgumentException("Size must not be negative: "+size);
+		if (size > MAX_SIZE)
+			throw new IllegalArgumentException("Too many words for a heap array (OffHeapBitboardGame holds more): "+size);
+		words = new long[(int)size];
+	}
+
+	public long size() {
+		return words().length;
+	}
+
+	public long get(long index) {
+		return words()[(int)index];
+	}
+
+	public void set(long index, long word) {
+		words()[(int)index] = word;
+	}
+
+	public void get(long index, long[] words, int offset, int length) {
+		System.arraycopy(words(), (int)index, words, offset, length);
+	}
+
+	public void put(long index, long[] words, int offset, int length) {
+		System.arraycopy(words, offset, words(), (int)index, length);
+	}
+
+	public void clear() {
+		Arrays.fill(words(), 0L);
+	}
+
+	public long[] array() {
+		return words();
+	}
+
+	/**
+	 * Drops the array for the garbage collector
+	 */
+	public void close() {
+		words = null;
+	}
+
+	public boolean isClosed() {
+		return words == null;
+	}
+
+	private long[] words() {
+		long[] words = this.words;
+		if (words == null)
+			throw new IllegalStateException("Heap words have been closed");
+		return words;
+	}
+}
@@ -0,0 +1,242 @@
+package com.uprr.game.gameoflife;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * List of unique cells with a hash index over their positions, so membership,
+ * insertion and removal are all O(1).  Removal swaps the last cell into the
+ * vacated slot, so list order is not preserved across removals.
+ *
+ * Iterators are weakly consistent: they never throw a
+ * ConcurrentModificationException, but cells added or removed while iterating
+ * may or may not be reported (the grid paints while the game is ticking).
+ *
+ * Game hands out read-only view()s and reuses the list for a later
+ * generation, calling recycle() first.  Views fail fast once their list is
+ * recycled, rather than quietly reporting another generation's cells.
+ *
+ * @author slenagh@up.com
+ *
+ */
+class LiveCellList extends AbstractList<Cell>
+	implements RandomAccess
+{
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private Cell[] cells = new Cell[INITIAL_CAPACITY];
+	private int size;
+	private final Map<Cell, Integer> positions = new HashMap<Cell, Integer>();
+	private volatile int recycles;
+	private View view = new View();
+
+	/**
+	 * Read-only view of the list that throws a
+	 * ConcurrentModificationException on any use once the list is recycled
+	 * (on a best-effort basis, like fail-fast iterators)
+	 */
+	private class View extends AbstractList<Cell>
+		implements RandomAccess
+	{
+		private final int viewRecycles = recycles;
+
+		public int size() {
+			checkNotRecycled();
+			return LiveCellList.this.size();
+		}
+
+		public Cell get(int index) {
+			checkNotRecycled();
+			return LiveCellList.this.get(index);
+		}
+
+		public boolean contains(Object o) {
+			checkNotRecycled();
+			return LiveCellList.this.contains(o);
+		}
+
+		public int indexOf(Object o) {
+			checkNotRecycled();
+			return LiveCellList.this.indexOf(o);
+		}
+
+		public int lastIndexOf(Object o) {
+			return indexOf(o);
+		}
+
+		public boolean add(Cell cell) {
+			throw new UnsupportedOperationException("Live cells view is read-only");
+		}
+
+		public boolean remove(Object o) {
+			throw new UnsupportedOperationException("Live cells view is read-only");
+		}
+
+		public Cell remove(int index) {
+			throw new UnsupportedOperationException("Live cells view is read-only");
+		}
+
+		public void clear() {
+			throw new UnsupportedOperationException("Live cells view is read-only");
+		}
+
+		public Iterator<Cell> iterator() {
+
+			checkNotRecycled();
+			final Iterator<Cell> cells = LiveCellList.this.iterator();
+
+			return new Iterator<Cell>() {
+
+				public boolean hasNext() {
+					checkNotRecycled();
+					return cells.hasNext();
+				}
+
+				public Cell next() {
+					checkNotRecycled();
+					return cells.next();
+				}
+			};
+		}
+
+		private void checkNotRecycled() {
+			if (recycles != viewRecycles)
+				throw new ConcurrentModificationException("Live cells were recycled for a later generation"
+						+ " (they're valid until the second tick after getLiveCellsView())");
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public List<Cell> view() {
+		return view;
+	}
+
+	/**
+	 * Marks the list as reused for another generation, so views handed out
+	 * before fail fast
+	 */
+	public void recycle() {
+		recycles++;
+		view = new View();
+	}
+
+	public Cell get(int index) {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("Index: "+index+", size: "+size);
+		return cells[index];
+	}
+
+	public boolean contains(Object o) {
+		return positions.containsKey(o);
+	}
+
+	public int indexOf(Object o) {
+		Integer position = positions.get(o);
+		return position == null ? -1 : position;
+	}
+
+	public int lastIndexOf(Object o) {
+		return indexOf(o);
+	}
+
+	/**
+	 * Adds the cell if it isn't already in the list
+	 *
+	 * @return false if an equal cell was already present
+	 */
+	public boolean add(Cell cell) {
+
+		if (cell == null)
+			throw new NullPointerException("Null cells are not allowed");
+		if (positions.containsKey(cell))
+			return false;
+
+		if (size == cells.length)
+			cells = Arrays.copyOf(cells, size*2);
+		cells[size] = cell;
+		positions.put(cell, size++);
+		modCount++;
+		return true;
+	}
+
+	public boolean remove(Object o) {
+
+		Integer position = positions.remove(o);
+		if (position == null)
+			return false;
+
+		removeSlot(position);
+		return true;
+	}
+
+	public Cell remove(int index) {
+
+		Cell removed = get(index);
+		positions.remove(removed);
+		removeSlot(index);
+		return removed;
+	}
+
+	private void removeSlot(int index) {
+
+		int last = --size;
+		if (index != last) {
+			Cell moved = cells[last];
+			cells[index] = moved;
+			positions.put(moved, index);
+		}
+		cells[last] = null;
+		modCount++;
+	}
+
+	public void clear() {
+		Arrays.fill(cells, 0, size, null);
+		size = 0;
+		positions.clear();
+		modCount++;
+	}
+
+	public Iterator<Cell> iterator() {
+
+		final Cell[] snapshot = cells;
+		final int snapshotSize = Math.min(size, snapshot.length);
+
+		return new Iterator<Cell>() {
+
+			private int cursor = 0;
+			private Cell nextCell = advance();
+
+			private Cell advance() {
+				while (cursor < snapshotSize) {
+					Cell cell = snapshot[cursor++];
+					if (cell != null)
+						return cell;
+				}
+				return null;
+			}
+
+			public boolean hasNext() {
+				return nextCell != null;
+			}
+
+			public Cell next() {
+				if (nextCell == null)
+					throw new NoSuchElementException();
+				Cell cell = nextCell;
+				nextCell = advance();
+				return cell;
+			}
+		};
+	}
+}
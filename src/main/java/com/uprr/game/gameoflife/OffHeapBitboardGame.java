@@ -0,0 +1,40 @@
+package com.uprr.game.gameoflife;
+
+/**
+ * BitboardGame's width x height torus with the cell words held off-heap, for
+ * universes of billions of cells.  The heap only holds a few rows of scratch
+ * words, so GC time stays flat however big the universe is.  Rows are copied
+ * through that scratch space and stepped by the same row steppers (vector or
+ * scalar) as BitboardGame.
+ *
+ * Holds two generations of native memory (width x height / 4 bytes) until
+ * closed; the game can't be used after close().
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class OffHeapBitboardGame extends BitboardGame implements AutoCloseable {
+
+	/**
+	 * @param width columns, a positive multiple of 64
+	 * @param height rows
+	 */
+	public OffHeapBitboardGame(int width, int height) {
+		this(width, height, OffHeapWords.DEFAULT_CHUNK_SHIFT);
+	}
+
+	OffHeapBitboardGame(int width, int height, int chunkShift) {
+		super(width, height, Bitboards.fastestRowStepper(), words -> new OffHeapWords(words, chunkShift));
+	}
+
+	/**
+	 * Frees both generations' native memory
+	 */
+	public void close() {
+		closeWords();
+	}
+
+	public boolean isClosed() {
+		return areWordsClosed();
+	}
+}
@@ -0,0 +1,166 @@
+package com.uprr.game.gameoflife;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * BitboardWords held in direct (off-heap) buffers, so they can pass the 2GB
+ * limit of a single buffer or array.  The words are split over chunks of
+ * 2^chunkShift longs.
+ *
+ * close() frees the buffers' native memory there and then, and any use
+ * afterwards throws an IllegalStateException.  -XX:MaxDirectMemorySize caps
+ * the total.
+ *
+ * @author slenagh@up.com
+ *
+ */
+final class OffHeapWords implements BitboardWords {
+
+	// 2^27 longs is 1GB per buffer
+	static final int DEFAULT_CHUNK_SHIFT = 27;
+
+	// Unsafe.invokeCleaner(ByteBuffer), the one way to free a direct buffer
+	// before it's garbage collected; null if the JVM doesn't offer it
+	private static final Object UNSAFE;
+	private static final Method INVOKE_CLEANER;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			unsafe = theUnsafe.get(null);
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// left to the garbage collector
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+	}
+
+	private final long size;
+	private final int chunkShift, chunkMask;
+	private ByteBuffer[] buffers;
+	private LongBuffer[] chunks;
+
+	OffHeapWords(long size) {
+		this(size, DEFAULT_CHUNK_SHIFT);
+	}
+
+	OffHeapWords(long size, int chunkShift) {
+
+		if (size < 0)
+			throw new IllegalArgumentException("Size must not be negative: "+size);
+		if (chunkShift < 1 || chunkShift > DEFAULT_CHUNK_SHIFT)
+			throw new IllegalArgumentException("Chunk shift must be from 1 to "+DEFAULT_CHUNK_SHIFT+": "+chunkShift);
+
+		this.size = size;
+		this.chunkShift = chunkShift;
+		this.chunkMask = (1 << chunkShift) - 1;
+
+		long chunkCount = (size + chunkMask) >>> chunkShift;
+		if (chunkCount > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Too many words: "+size);
+		buffers = new ByteBuffer[(int)chunkCount];
+		chunks = new LongBuffer[(int)chunkCount];
+		for (int chunk = 0; chunk < chunks.length; chunk++) {
+			long chunkWords = Math.min(size - ((long)chunk << chunkShift), 1L << chunkShift);
+			buffers[chunk] = ByteBuffer.allocateDirect((int)chunkWords*Long.BYTES).order(ByteOrder.nativeOrder());
+			chunks[chunk] = buffers[chunk].asLongBuffer();
+		}
+	}
+
+	public long size() {
+		return size;
+	}
+
+	public long get(long index) {
+		return chunks()[(int)(index >>> chunkShift)].get((int)index & chunkMask);
+	}
+
+	public void set(long index, long word) {
+		chunks()[(int)(index >>> chunkShift)].put((int)index & chunkMask, word);
+	}
+
+	public void get(long index, long[] words, int offset, int length) {
+
+		LongBuffer[] chunks = chunks();
+		while (length > 0) {
+			LongBuffer chunk = chunks[(int)(index >>> chunkShift)].duplicate();
+			int chunkIndex = (int)index & chunkMask;
+			int chunkLength = Math.min(length, chunk.capacity() - chunkIndex);
+			chunk.position(chunkIndex);
+			chunk.get(words, offset, chunkLength);
+			index += chunkLength;
+			offset += chunkLength;
+			length -= chunkLength;
+		}
+	}
+
+	public void put(long index, long[] words, int offset, int length) {
+
+		LongBuffer[] chunks = chunks();
+		while (length > 0) {
+			LongBuffer chunk = chunks[(int)(index >>> chunkShift)].duplicate();
+			int chunkIndex = (int)index & chunkMask;
+			int chunkLength = Math.min(length, chunk.capacity() - chunkIndex);
+			chunk.position(chunkIndex);
+			chunk.put(words, offset, chunkLength);
+			index += chunkLength;
+			offset += chunkLength;
+			length -= chunkLength;
+		}
+	}
+
+	public void clear() {
+		long[] zeros = new long[Math.min(1 << chunkShift, 1 << 16)];
+		for (LongBuffer chunk : chunks())
+			for (int index = 0; index < chunk.capacity(); index += zeros.length) {
+				LongBuffer zeroed = chunk.duplicate();
+				zeroed.position(index);
+				zeroed.put(zeros, 0, Math.min(zeros.length, chunk.capacity() - index));
+			}
+	}
+
+	public long[] array() {
+		return null;
+	}
+
+	/**
+	 * Frees the buffers' native memory (or leaves it to the garbage collector
+	 * on JVMs without sun.misc.Unsafe)
+	 */
+	public void close() {
+
+		ByteBuffer[] buffers = this.buffers;
+		if (buffers == null)
+			return;
+		this.buffers = null;
+		chunks = null;
+		if (INVOKE_CLEANER != null)
+			for (ByteBuffer buffer : buffers) {
+				try {
+					INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				} catch (ReflectiveOperationException e) {
+					throw new IllegalStateException("Couldn't free off-heap words", e);
+				}
+			}
+	}
+
+	public boolean isClosed() {
+		return chunks == null;
+	}
+
+	private LongBuffer[] chunks() {
+		LongBuffer[] chunks = this.chunks;
+		if (chunks == null)
+			throw new IllegalStateException("Off-heap words have been closed");
+		return chunks;
+	}
+}
@@ -0,0 +1,218 @@
+package com.uprr.game.gameoflife;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Game of Life engine that packs each live cell's coordinates into a long and
+ * keeps them in a primitive open-addressing hash set, so no Cell objects are
+ * allocated while ticking.  Cells are only created at the API boundary, i.e.
+ * the lists returned by getLiveCells(), getBornCells() and getKilledCells()
+ * are read-only snapshots built on request.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class PackedGame extends Game {
+
+	private final LongCellSet liveCells = new LongCellSet();
+
+	// Scratch state re-used every generation to avoid GC churn
+	private final LongCellSet deadNeighborCells = new LongCellSet();
+	private final CellBuffer cellsToKill = new CellBuffer(), cellsToBirth = new CellBuffer();
+	private boolean hasTicked;
+
+	private static final class CellBuffer {
+
+		private long[] cells = new long[16];
+		private int size;
+
+		void add(long packedCell) {
+			if (size == cells.length)
+				cells = Arrays.copyOf(cells, size*2);
+			cells[size++] = packedCell;
+		}
+
+		void clear() {
+			size = 0;
+		}
+
+		List<Cell> toCellList() {
+			List<Cell> cellList = new ArrayList<Cell>(size);
+			for (int i = 0; i < size; i++)
+				cellList.add(LongCellSet.unpack(cells[i]));
+			return Collections.unmodifiableList(cellList);
+		}
+	}
+
+	public List<Cell> getLiveCells() {
+		final List<Cell> cellList = new ArrayList<Cell>(liveCells.size());
+		liveCells.forEach(packedCell -> cellList.add(LongCellSet.unpack(packedCell)));
+		return Collections.unmodifiableList(cellList);
+	}
+
+	/**
+	 * getLiveCells() is already a read-only copy
+	 */
+	public List<Cell> getLiveCellsView() {
+		return getLiveCells();
+	}
+
+	/**
+	 * Probes each cell of the region when there are fewer of them than live
+	 * cells, otherwise picks the region's cells out of the live ones, so it
+	 * costs whichever is less
+	 */
+	public synchronized List<Cell> getLiveCells(int left, int top, int width, int height) {
+
+		checkRegion(width, height);
+		long right = Math.min((long)left + width, Integer.MAX_VALUE + 1L);
+		long bottom = Math.min((long)top + height, Integer.MAX_VALUE + 1L);
+		final List<Cell> cellList = new ArrayList<Cell>();
+
+		if ((right - left)*(bottom - top) <= liveCells.size()) {
+			for (long y = top; y < bottom; y++)
+				for (long x = left; x < right; x++)
+					if (liveCells.contains(LongCellSet.pack((int)x, (int)y)))
+						cellList.add(Cell.valueOf((int)x, (int)y));
+		} else
+			liveCells.forEach(packedCell -> {
+				int x = LongCellSet.unpackX(packedCell), y = LongCellSet.unpackY(packedCell);
+				if (x >= left && x < right && y >= top && y < bottom)
+					cellList.add(LongCellSet.unpack(packedCell));
+			});
+		return Collections.unmodifiableList(cellList);
+	}
+
+	public List<Cell> getBornCells() {
+		return hasTicked ? cellsToBirth.toCellList() : null;
+	}
+
+	public List<Cell> getKilledCells() {
+		return hasTicked ? cellsToKill.toCellList() : null;
+	}
+
+	public long getPopulation() {
+		return liveCells.size();
+	}
+
+	public void bringCellToLife(Cell cell) {
+
+		if (!liveCells.add(LongCellSet.pack(cell)))
+			throw new IllegalArgumentException("Cell already alive at this location: "+cell);
+		cellEdited();
+	}
+
+	public void killCell(Cell cell) {
+
+		if (!liveCells.remove(LongCellSet.pack(cell)))
+			throw new IllegalArgumentException("No cell alive at this location: "+cell);
+		cellEdited();
+	}
+
+	public boolean isCellAlive(Cell cell) {
+		return liveCells.contains(LongCellSet.pack(cell));
+	}
+
+	public int getNeighborCountAndDeadCells(Cell cell, Set<Cell> deadNeighbors) {
+
+		int neighborCount = 0;
+
+		for (int x = cell.getX() - 1; x <= cell.getX()+1; x++) {
+			for (int y = cell.getY() - 1; y <= cell.getY()+1; y++)  {
+
+				if (x == cell.getX() && y == cell.getY()) // Don't count myself
+					continue;
+
+				if (liveCells.contains(LongCellSet.pack(x, y)))
+					neighborCount++;
+				else if (deadNeighbors != null)
+					deadNeighbors.add(Cell.valueOf(x, y));
+			}
+		}
+
+		return neighborCount;
+	}
+
+	private int getNeighborCountAndDeadCells(long packedCell, LongCellSet deadNeighbors) {
+
+		int cellX = LongCellSet.unpackX(packedCell), cellY = LongCellSet.unpackY(packedCell);
+		int neighborCount = 0;
+
+		for (int x = cellX - 1; x <= cellX+1; x++) {
+			for (int y = cellY - 1; y <= cellY+1; y++)  {
+
+				if (x == cellX && y == cellY) // Don't count myself
+					continue;
+
+				long adjacentCell = LongCellSet.pack(x, y);
+				if (liveCells.contains(adjacentCell))
+					neighborCount++;
+				else if (deadNeighbors != null)
+					deadNeighbors.add(adjacentCell);
+			}
+		}
+
+		return neighborCount;
+	}
+
+	public synchronized void tick() {
+
+		long startNanos = System.nanoTime();
+		deadNeighborCells.clear();
+		cellsToKill.clear();
+		cellsToBirth.clear();
+		Rule rule = getRule();
+
+		long candidateCells = liveCells.size();
+		TickPhaseEvent phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+
+		// see if any live cells no longer have support to continue living
+		liveCells.forEach(liveCell -> {
+
+			int neighborCount = getNeighborCountAndDeadCells(liveCell, deadNeighborCells);
+
+			if (!rule.survives(neighborCount))
+				cellsToKill.add(liveCell);
+		});
+		phaseEvent.commit(TickPhaseEvent.COUNT_NEIGHBORS, getGeneration(), liveCells.size(), candidateCells);
+
+		phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+		// determine dead/empty cells that have support to come to life
+		deadNeighborCells.forEach(deadNeighborCell -> {
+
+			int neighborCount = getNeighborCountAndDeadCells(deadNeighborCell, null);
+
+			if (rule.isBorn(neighborCount))
+				cellsToBirth.add(deadNeighborCell);
+		});
+		phaseEvent.commit(TickPhaseEvent.SCAN_DEAD_NEIGHBORS, getGeneration(), liveCells.size(), deadNeighborCells.size());
+
+		phaseEvent = new TickPhaseEvent();
+		phaseEvent.begin();
+
+		for (int i = 0; i < cellsToKill.size; i++)
+			liveCells.remove(cellsToKill.cells[i]);
+		for (int i = 0; i < cellsToBirth.size; i++)
+			liveCells.add(cellsToBirth.cells[i]);
+		phaseEvent.commit(TickPhaseEvent.APPLY_CHANGES, getGeneration(), liveCells.size(), cellsToKill.size + cellsToBirth.size);
+		hasTicked = true;
+		addGenerations(1);
+		recordTick(startNanos, cellsToBirth.size, cellsToKill.size, candidateCells + deadNeighborCells.size());
+	}
+
+	public void bringCellsToLife(long[] packedCells, int offset, int length) {
+		for (int i = offset; i < offset + length; i++)
+			liveCells.add(packedCells[i]);
+		cellEdited();
+	}
+
+	public void reset() {
+		super.reset();
+		liveCells.clear();
+	}
+}
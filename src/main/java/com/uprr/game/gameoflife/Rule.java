@@ -0,0 +1,145 @@
+package com.uprr.game.gameoflife;
+
+/**
+ * Life-like birth/survival rule, parsed from B/S notation ("B3/S23" for
+ * Conway, "B36/S23" for HighLife) into a table of next states indexed by
+ * current state and neighbor count.  The older S/B form ("23/3") is accepted
+ * too.
+ *
+ * Rules with B0 are rejected: empty space would come alive, which none of
+ * the infinite-plane engines can represent.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public final class Rule {
+
+	public static final Rule CONWAY = parse("B3/S23");
+	public static final Rule HIGHLIFE = parse("B36/S23");
+
+	private static final int MAX_NEIGHBORS = 8;
+
+	// bit n set when n neighbors give birth / survival
+	private final int birthMask, survivalMask;
+	// next state indexed by neighbor count, plus 9 when the cell is alive
+	private final boolean[] nextStates = new boolean[2*(MAX_NEIGHBORS + 1)];
+
+	private Rule(int birthMask, int survivalMask) {
+
+		if ((birthMask & 1) != 0)
+			throw new IllegalArgumentException("B0 rules are not supported");
+
+		this.birthMask = birthMask;
+		this.survivalMask = survivalMask;
+		for (int neighborCount = 0; neighborCount <= MAX_NEIGHBORS; neighborCount++) {
+			nextStates[neighborCount] = (birthMask & (1 << neighborCount)) != 0;
+			nextStates[MAX_NEIGHBORS + 1 + neighborCount] = (survivalMask & (1 << neighborCount)) != 0;
+		}
+	}
+
+	/**
+	 * @param notation "B3/S23" style (either order, any case) or "23/3" style
+	 * 	(survival counts first)
+	 */
+	public static Rule parse(String notation) {
+
+		if (notation == null)
+			throw new IllegalArgumentException("Rule is required");
+
+		String[] parts = notation.trim().toUpperCase().split("/", -1);
+		if (parts.length != 2)
+			throw new IllegalArgumentException("Rule must be of the form B3/S23: "+notation);
+
+		int birthMask, survivalMask;
+		if (parts[0].startsWith("B") && parts[1].startsWith("S")) {
+			birthMask = neighborCountMask(parts[0].substring(1), notation);
+			survivalMask = neighborCountMask(parts[1].substring(1), notation);
+		} else if (parts[0].startsWith("S") && parts[1].startsWith("B")) {
+			survivalMask = neighborCountMask(parts[0].substring(1), notation);
+			birthMask = neighborCountMask(parts[1].substring(1), notation);
+		} else {
+			survivalMask = neighborCountMask(parts[0], notation);
+			birthMask = neighborCountMask(parts[1], notation);
+		}
+
+		return new Rule(birthMask, survivalMask);
+	}
+
+	/**
+	 * Rule from neighbor count masks, as returned by getBirthMask() and
+	 * getSurvivalMask()
+	 */
+	public static Rule valueOf(int birthMask, int survivalMask) {
+
+		int allCounts = (1 << (MAX_NEIGHBORS + 1)) - 1;
+		if ((birthMask & ~allCounts) != 0 || (survivalMask & ~allCounts) != 0)
+			throw new IllegalArgumentException("Neighbor counts must be 0 to 8: birth mask "+birthMask+", survival mask "+survivalMask);
+
+		return new Rule(birthMask, survivalMask);
+	}
+
+	private static int neighborCountMask(String neighborCounts, String notation) {
+
+		int mask = 0;
+		for (char digit : neighborCounts.toCharArray()) {
+			if (digit < '0' || digit > '0' + MAX_NEIGHBORS)
+				throw new IllegalArgumentException("Neighbor counts must be 0 to 8: "+notation);
+			mask |= 1 << (digit - '0');
+		}
+		return mask;
+	}
+
+	public boolean isBorn(int neighborCount) {
+		return nextStates[neighborCount];
+	}
+
+	public boolean survives(int neighborCount) {
+		return nextStates[MAX_NEIGHBORS + 1 + neighborCount];
+	}
+
+	public boolean isAliveNextGeneration(boolean isAlive, int neighborCount) {
+		return nextStates[isAlive ? MAX_NEIGHBORS + 1 + neighborCount : neighborCount];
+	}
+
+	/**
+	 * Bit n set when a dead cell with n neighbors is born
+	 */
+	public int getBirthMask() {
+		return birthMask;
+	}
+
+	/**
+	 * Bit n set when a live cell with n neighbors survives
+	 */
+	public int getSurvivalMask() {
+		return survivalMask;
+	}
+
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof Rule))
+			return false;
+		Rule other = (Rule)o;
+		return birthMask == other.birthMask && survivalMask == other.survivalMask;
+	}
+
+	public int hashCode() {
+		return birthMask << 9 | survivalMask;
+	}
+
+	/**
+	 * B/S notation, e.g. "B3/S23"
+	 */
+	public String toString() {
+		return "B" + neighborCounts(birthMask) + "/S" + neighborCounts(survivalMask);
+	}
+
+	private static String neighborCounts(int mask) {
+		StringBuilder neighborCounts = new StringBuilder();
+		for (int neighborCount = 0; neighborCount <= MAX_NEIGHBORS; neighborCount++)
+			if ((mask & (1 << neighborCount)) != 0)
+				neighborCounts.append(neighborCount);
+		return neighborCounts.toString();
+	}
+}
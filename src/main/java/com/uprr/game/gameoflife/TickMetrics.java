@@ -0,0 +1,180 @@
+package com.uprr.game.gameoflife;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Per-tick metrics every game records: a tick latency histogram, population,
+ * births, deaths and candidate cells evaluated.  Recording is two clock reads
+ * and a few array updates, so it's always on.  register() publishes them as
+ * a platform MBean for JConsole or any other JMX client.
+ *
+ * The histogram has 8 buckets per power of two of nanoseconds, so
+ * percentiles are within 12.5% (reported as their bucket's upper end, capped
+ * at the max).
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class TickMetrics implements TickMetricsMBean {
+
+	public static final String DOMAIN = "com.uprr.game.gameoflife";
+
+	private static final int SUB_BUCKET_BITS = 3, SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+	private final long[] latencyCounts = new long[BUCKETS];
+	private long tickCount, totalTickNanos, lastTickNanos, maxTickNanos;
+	private long population, births = -1, deaths = -1, candidateCells = -1;
+	private long totalBirths, totalDeaths;
+	private ObjectName objectName;
+
+	/**
+	 * Births, deaths and candidate cells are -1 when the engine doesn't track them
+	 */
+	synchronized void record(long tickNanos, long population, long births, long deaths, long candidateCells) {
+
+		tickNanos = Math.max(tickNanos, 0);
+		latencyCounts[bucket(tickNanos)]++;
+		tickCount++;
+		totalTickNanos += tickNanos;
+		lastTickNanos = tickNanos;
+		maxTickNanos = Math.max(maxTickNanos, tickNanos);
+
+		this.population = population;
+		this.births = births;
+		this.deaths = deaths;
+		this.candidateCells = candidateCells;
+		if (births > 0)
+			totalBirths += births;
+		if (deaths > 0)
+			totalDeaths += deaths;
+	}
+
+	static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS)
+			return (int)nanos;
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int subBucket = (int)(nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	/**
+	 * Largest latency in the bucket
+	 */
+	static long bucketUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket;
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long lowerBound = (long)(SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+		return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * @param fraction of ticks at or below the latency returned, e.g. 0.99
+	 */
+	public synchronized long getPercentileTickNanos(double fraction) {
+
+		if (tickCount == 0)
+			return 0;
+
+		long rank = (long)Math.ceil(fraction * tickCount), seen = 0;
+		for (int bucket = 0; bucket < latencyCounts.length; bucket++) {
+			seen += latencyCounts[bucket];
+			if (seen >= Math.max(rank, 1))
+				return Math.min(bucketUpperBound(bucket), maxTickNanos);
+		}
+		return maxTickNanos;
+	}
+
+	public synchronized long getTickCount() {
+		return tickCount;
+	}
+
+	public synchronized long getLastTickNanos() {
+		return lastTickNanos;
+	}
+
+	public synchronized double getMeanTickNanos() {
+		return tickCount == 0 ? 0 : (double)totalTickNanos / tickCount;
+	}
+
+	public long getMedianTickNanos() {
+		return getPercentileTickNanos(0.5);
+	}
+
+	public long getP99TickNanos() {
+		return getPercentileTickNanos(0.99);
+	}
+
+	public synchronized long getMaxTickNanos() {
+		return maxTickNanos;
+	}
+
+	public synchronized long getPopulation() {
+		return population;
+	}
+
+	public synchronized long getBirths() {
+		return births;
+	}
+
+	public synchronized long getDeaths() {
+		return deaths;
+	}
+
+	public synchronized long getCandidateCells() {
+		return candidateCells;
+	}
+
+	public synchronized long getTotalBirths() {
+		return totalBirths;
+	}
+
+	public synchronized long getTotalDeaths() {
+		return totalDeaths;
+	}
+
+	public synchronized void reset() {
+		Arrays.fill(latencyCounts, 0);
+		tickCount = totalTickNanos = lastTickNanos = maxTickNanos = 0;
+		totalBirths = totalDeaths = 0;
+	}
+
+	/**
+	 * Publishes the metrics on the platform MBean server as
+	 * com.uprr.game.gameoflife:type=TickMetrics,name=(name)
+	 */
+	public synchronized ObjectName register(String name) {
+
+		if (objectName != null)
+			throw new IllegalStateException("Already registered as "+objectName);
+
+		try {
+			ObjectName newObjectName = new ObjectName(DOMAIN + ":type=TickMetrics,name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+			objectName = newObjectName;
+			return objectName;
+		} catch (JMException jme) {
+			throw new IllegalArgumentException("Couldn't register tick metrics as "+name, jme);
+		}
+	}
+
+	public synchronized void unregister() {
+
+		if (objectName == null)
+			return;
+
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		try {
+			mBeanServer.unregisterMBean(objectName);
+		} catch (JMException jme) {
+			// already gone
+		}
+		objectName = null;
+	}
+}
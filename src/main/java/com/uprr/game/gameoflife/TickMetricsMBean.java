@@ -0,0 +1,41 @@
+package com.uprr.game.gameoflife;
+
+/**
+ * JMX view of a game's TickMetrics.  Latencies are in nanoseconds; the
+ * per-tick counts are the last tick's, or -1 when the engine doesn't track
+ * them.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public interface TickMetricsMBean {
+
+	long getTickCount();
+
+	long getLastTickNanos();
+
+	double getMeanTickNanos();
+
+	long getMedianTickNanos();
+
+	long getP99TickNanos();
+
+	long getMaxTickNanos();
+
+	long getPopulation();
+
+	long getBirths();
+
+	long getDeaths();
+
+	long getCandidateCells();
+
+	long getTotalBirths();
+
+	long getTotalDeaths();
+
+	/**
+	 * Clears the latency histogram and totals
+	 */
+	void reset();
+}
@@ -0,0 +1,71 @@
+package com.uprr.game.gameoflife;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one phase of working out (or drawing) a
+ * generation, so slow ticks can be lined up with GC and safepoints in a
+ * recording.  Costs next to nothing unless a recording has it enabled.
+ *
+ * <pre>
+ * TickPhaseEvent phaseEvent = new TickPhaseEvent();
+ * phaseEvent.begin();
+ * ...
+ * phaseEvent.commit(TickPhaseEvent.COUNT_NEIGHBORS, generation, population, cellsProcessed);
+ * </pre>
+ *
+ * @author slenagh@up.com
+ *
+ */
+@Name(TickPhaseEvent.NAME)
+@Label("Tick Phase")
+@Category("Game of Life")
+@Description("One phase of working out or drawing a generation")
+@StackTrace(false)
+public final class TickPhaseEvent extends Event {
+
+	public static final String NAME = "com.uprr.game.gameoflife.TickPhase";
+
+	/** Live cells checked for survival (and their neighbors counted) */
+	public static final String COUNT_NEIGHBORS = "count neighbors";
+	/** Dead neighbors of live cells checked for birth */
+	public static final String SCAN_DEAD_NEIGHBORS = "scan dead neighbors";
+	/** Cells around last tick's changes checked (ACTIVE_SET mode) */
+	public static final String SCAN_CHANGED_NEIGHBORHOODS = "scan changed neighborhoods";
+	/** Kills and births applied to the next generation */
+	public static final String APPLY_CHANGES = "apply changes";
+	/** Changed cells drawn on the grid */
+	public static final String DRAW = "draw";
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Generation")
+	@Description("Generation being ticked from (or drawn)")
+	long generation;
+
+	@Label("Population")
+	long population;
+
+	@Label("Cells Processed")
+	long cellsProcessed;
+
+	/**
+	 * Ends the event and commits it, if it's enabled and over its threshold
+	 */
+	public void commit(String phase, long generation, long population, long cellsProcessed) {
+		end();
+		if (shouldCommit()) {
+			this.phase = phase;
+			this.generation = generation;
+			this.population = population;
+			this.cellsProcessed = cellsProcessed;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.uprr.game.gameoflife;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live cells grouped into 32x32 tiles, so the cells in a region can be
+ * found without walking the whole population.  Kept up a cell at a time, so
+ * a tick only pays for the cells it bears and kills.
+ *
+ * @author slenagh@up.com
+ *
+ */
+class TileIndex {
+
+	private static final int TILE_SHIFT = 5;
+
+	// tiles without live cells are dropped
+	private final Map<Long, LiveCellList> tiles = new HashMap<Long, LiveCellList>();
+
+	public TileIndex(Collection<Cell> cells) {
+		for (Cell cell : cells)
+			add(cell);
+	}
+
+	private static long tileKey(Cell cell) {
+		return Cell.pack(cell.getX() >> TILE_SHIFT, cell.getY() >> TILE_SHIFT);
+	}
+
+	public void add(Cell cell) {
+		tiles.computeIfAbsent(tileKey(cell), tileKey -> new LiveCellList()).add(cell);
+	}
+
+	public void remove(Cell cell) {
+
+		long tileKey = tileKey(cell);
+		LiveCellList tileCells = tiles.get(tileKey);
+		if (tileCells != null && tileCells.remove(cell) && tileCells.isEmpty())
+			tiles.remove(tileKey);
+	}
+
+	public void clear() {
+		tiles.clear();
+	}
+
+	/**
+	 * Adds the cells from (left, top) up to but not including (right, bottom),
+	 * looking only at the tiles the region overlaps (or at each tile once,
+	 * if the region overlaps more tiles than there are)
+	 */
+	public void addCellsIn(List<Cell> cellList, long left, long top, long right, long bottom) {
+
+		if (left >= right || top >= bottom)
+			return;
+
+		long tileLeft = left >> TILE_SHIFT, tileTop = top >> TILE_SHIFT;
+		long tileRight = (right - 1) >> TILE_SHIFT, tileBottom = (bottom - 1) >> TILE_SHIFT;
+		if ((tileRight - tileLeft + 1)*(tileBottom - tileTop + 1) > tiles.size()) {
+			for (Map.Entry<Long, LiveCellList> tile : tiles.entrySet()) {
+				int tileX = Cell.unpackX(tile.getKey()), tileY = Cell.unpackY(tile.getKey());
+				if (tileX >= tileLeft && tileX <= tileRight && tileY >= tileTop && tileY <= tileBottom)
+					addCellsIn(cellList, tile.getValue(), left, top, right, bottom);
+			}
+			return;
+		}
+
+		for (long tileY = tileTop; tileY <= tileBottom; tileY++)
+			for (long tileX = tileLeft; tileX <= tileRight; tileX++) {
+				LiveCellList tileCells = tiles.get(Cell.pack((int)tileX, (int)tileY));
+				if (tileCells != null)
+					addCellsIn(cellList, tileCells, left, top, right, bottom);
+			}
+	}
+
+	private static void addCellsIn(List<Cell> cellList, LiveCellList tileCells, long left, long top, long right, long bottom) {
+		for (Cell cell : tileCells)
+			if (cell.getX() >= left && cell.getX() < right && cell.getY() >= top && cell.getY() < bottom)
+				cellList.add(cell);
+	}
+}
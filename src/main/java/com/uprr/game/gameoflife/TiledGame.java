@@ -0,0 +1,394 @@
+package com.uprr.game.gameoflife;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Game of Life engine for the infinite plane that splits it into 64x64
+ * bitboard tiles kept in a hash map keyed by tile coordinates.  Each
+ * generation only steps tiles that changed last generation or border one
+ * that did (a tile whose whole neighborhood is unchanged can't change
+ * either), so clusters step at dense bitboard speed while memory stays
+ * proportional to the occupied area.  Tiles are allocated as patterns grow
+ * into them and freed when they die out.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class TiledGame extends Game {
+
+	public static final int TILE_SIZE = 64;
+	private static final int TILE_SHIFT = 6, TILE_MASK = TILE_SIZE - 1;
+	private static final long[] EMPTY_ROWS = new long[TILE_SIZE];
+
+	private final Map<Long, Tile> tiles = new HashMap<Long, Tile>();
+	// Tiles (by key) changed since they were last stepped, including freed ones
+	private Set<Long> changedTiles = new HashSet<Long>();
+	private List<Tile> lastSteppedTiles = Collections.emptyList();
+	private long population;
+	private boolean hasTicked;
+	private List<Cell> bornCells, killedCells;
+
+	private static final class Tile {
+
+		final int tileX, tileY;
+		long[] rows = new long[TILE_SIZE], previousRows = new long[TILE_SIZE];
+		// stepped but not yet committed, written over previousRows (a stale buffer by then)
+		long[] nextRows;
+		int population;
+
+		Tile(int tileX, int tileY) {
+			this.tileX = tileX;
+			this.tileY = tileY;
+		}
+
+		long key() {
+			return tileKey(tileX, tileY);
+		}
+	}
+
+	private static long tileKey(int tileX, int tileY) {
+		return LongCellSet.pack(tileX, tileY);
+	}
+
+	/**
+	 * Number of tiles currently allocated
+	 */
+	public synchronized int getTileCount() {
+		return tiles.size();
+	}
+
+	public synchronized List<Cell> getLiveCells() {
+
+		List<Cell> liveCells = new ArrayList<Cell>((int)Math.min(population, Integer.MAX_VALUE));
+		for (Tile tile : tiles.values())
+			for (int row = 0; row < TILE_SIZE; row++)
+				addCells(liveCells, tile, row, tile.rows[row]);
+		return Collections.unmodifiableList(liveCells);
+	}
+
+	/**
+	 * getLiveCells() is already a read-only copy
+	 */
+	public List<Cell> getLiveCellsView() {
+		return getLiveCells();
+	}
+
+	/**
+	 * Only looks at the tiles the region overlaps (or at each tile once, if
+	 * it overlaps more tiles than there are)
+	 */
+	public synchronized List<Cell> getLiveCells(int left, int top, int width, int height) {
+
+		checkRegion(width, height);
+		List<Cell> cellList = new ArrayList<Cell>();
+		long right = (long)left + width, bottom = (long)top + height;
+		if (width == 0 || height == 0)
+			return Collections.unmodifiableList(cellList);
+
+		int tileLeft = left >> TILE_SHIFT, tileTop = top >> TILE_SHIFT;
+		int tileRight = (int)((right - 1) >> TILE_SHIFT), tileBottom = (int)((bottom - 1) >> TILE_SHIFT);
+		if (((long)tileRight - tileLeft + 1)*((long)tileBottom - tileTop + 1) > tiles.size()) {
+			for (Tile tile : tiles.values())
+				if (tile.tileX >= tileLeft && tile.tileX <= tileRight && tile.tileY >= tileTop && tile.tileY <= tileBottom)
+					addCellsIn(cellList, tile, left, top, right, bottom);
+		} else
+			for (long tileY = tileTop; tileY <= tileBottom; tileY++)
+				for (long tileX = tileLeft; tileX <= tileRight; tileX++) {
+					Tile tile = tiles.get(tileKey((int)tileX, (int)tileY));
+					if (tile != null)
+						addCellsIn(cellList, tile, left, top, right, bottom);
+				}
+		return Collections.unmodifiableList(cellList);
+	}
+
+	private static void addCellsIn(List<Cell> cellList, Tile tile, long left, long top, long right, long bottom) {
+
+		long tileColumn = (long)tile.tileX << TILE_SHIFT, tileRow = (long)tile.tileY << TILE_SHIFT;
+		long columnMask = Bitboards.columnMask(tileColumn, left, right);
+		int endRow = (int)Math.min(bottom - tileRow, TILE_SIZE);
+		for (int row = (int)Math.max(top - tileRow, 0); row < endRow; row++)
+			addCells(cellList, tile, row, tile.rows[row] & columnMask);
+	}
+
+	/**
+	 * Cells the last tick brought to life, or null before the first tick
+	 */
+	public synchronized List<Cell> getBornCells() {
+		findChanges();
+		return bornCells;
+	}
+
+	/**
+	 * Cells the last tick killed, or null before the first tick
+	 */
+	public synchronized List<Cell> getKilledCells() {
+		findChanges();
+		return killedCells;
+	}
+
+	public synchronized long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * Works out the last generation's changes from the stepped tiles' previous
+	 * and current rows (once per generation)
+	 */
+	private void findChanges() {
+
+		if (bornCells != null || !hasTicked)
+			return;
+
+		List<Cell> born = new ArrayList<Cell>(), killed = new ArrayList<Cell>();
+		for (Tile tile : lastSteppedTiles)
+			for (int row = 0; row < TILE_SIZE; row++) {
+				long changed = tile.rows[row] ^ tile.previousRows[row];
+				if (changed != 0) {
+					addCells(born, tile, row, changed & tile.rows[row]);
+					addCells(killed, tile, row, changed & tile.previousRows[row]);
+				}
+			}
+		bornCells = Collections.unmodifiableList(born);
+		killedCells = Collections.unmodifiableList(killed);
+	}
+
+	private static void addCells(List<Cell> cellList, Tile tile, int row, long bits) {
+
+		int x = tile.tileX << TILE_SHIFT, y = (tile.tileY << TILE_SHIFT) + row;
+		while (bits != 0) {
+			cellList.add(Cell.valueOf(x + Long.numberOfTrailingZeros(bits), y));
+			bits &= bits - 1;
+		}
+	}
+
+	public synchronized void bringCellToLife(Cell cell) {
+
+		if (isCellAlive(cell))
+			throw new IllegalArgumentException("Cell already alive at this location: "+cell);
+
+		findChanges();	// so last tick's changes don't pick this up
+		int tileX = cell.getX() >> TILE_SHIFT, tileY = cell.getY() >> TILE_SHIFT;
+		Tile tile = tiles.get(tileKey(tileX, tileY));
+		if (tile == null) {
+			tile = new Tile(tileX, tileY);
+			tiles.put(tile.key(), tile);
+		}
+		tile.rows[cell.getY() & TILE_MASK] |= 1L << cell.getX();
+		tile.population++;
+		population++;
+		changedTiles.add(tile.key());
+		cellEdited();
+	}
+
+	public synchronized void killCell(Cell cell) {
+
+		if (!isCellAlive(cell))
+			throw new IllegalArgumentException("No cell alive at this location: "+cell);
+
+		findChanges();
+		Tile tile = tiles.get(tileKey(cell.getX() >> TILE_SHIFT, cell.getY() >> TILE_SHIFT));
+		tile.rows[cell.getY() & TILE_MASK] &= ~(1L << cell.getX());
+		tile.population--;
+		population--;
+		changedTiles.add(tile.key());
+		if (tile.population == 0)
+			tiles.remove(tile.key());
+		cellEdited();
+	}
+
+	public synchronized boolean isCellAlive(Cell cell) {
+		return isAlive(cell.getX(), cell.getY());
+	}
+
+	private boolean isAlive(int x, int y) {
+		Tile tile = tiles.get(tileKey(x >> TILE_SHIFT, y >> TILE_SHIFT));
+		return tile != null && (tile.rows[y & TILE_MASK] & (1L << x)) != 0;
+	}
+
+	public synchronized int getNeighborCountAndDeadCells(Cell cell, Set<Cell> deadNeighbors) {
+
+		int neighborCount = 0;
+
+		for (int x = cell.getX() - 1; x <= cell.getX()+1; x++) {
+			for (int y = cell.getY() - 1; y <= cell.getY()+1; y++)  {
+
+				if (x == cell.getX() && y == cell.getY()) // Don't count myself
+					continue;
+
+				if (isAlive(x, y))
+					neighborCount++;
+				else if (deadNeighbors != null)
+					deadNeighbors.add(Cell.valueOf(x, y));
+			}
+		}
+
+		return neighborCount;
+	}
+
+	public synchronized void tick() {
+
+		long startNanos = System.nanoTime();
+		List<Tile> steppedTiles = new ArrayList<Tile>();
+		Rule rule = getRule();
+		for (long tileKey : tilesToStep()) {
+			Tile tile = tiles.get(tileKey);
+			if (tile == null)
+				tile = new Tile(LongCellSet.unpackX(tileKey), LongCellSet.unpackY(tileKey));
+			tile.nextRows = stepTile(tile, rule);
+			steppedTiles.add(tile);
+		}
+
+		// commit only after every tile is stepped, since stepping reads neighbors
+		Set<Long> nextChangedTiles = new HashSet<Long>();
+		for (Tile tile : steppedTiles) {
+
+			long[] nextRows = tile.nextRows;
+			tile.nextRows = null;
+			if (Arrays.equals(nextRows, tile.rows))
+				continue;	// previousRows now matches rows, so no changes are reported
+
+			int nextPopulation = 0;
+			for (long row : nextRows)
+				nextPopulation += Long.bitCount(row);
+
+			tile.previousRows = tile.rows;
+			tile.rows = nextRows;
+			population += nextPopulation - tile.population;
+			tile.population = nextPopulation;
+			nextChangedTiles.add(tile.key());
+
+			if (nextPopulation == 0)
+				tiles.remove(tile.key());
+			else
+				tiles.put(tile.key(), tile);
+		}
+
+		changedTiles = nextChangedTiles;
+		lastSteppedTiles = steppedTiles;
+		hasTicked = true;
+		bornCells = killedCells = null;
+		addGenerations(1);
+		// births and deaths are only worked out on request
+		recordTick(startNanos, -1, -1, (long)steppedTiles.size()*TILE_SIZE*TILE_SIZE);
+	}
+
+	/**
+	 * Tiles that changed plus their neighbors.  Missing neighbors are only
+	 * included when some tile next to them has live cells on the facing edge,
+	 * since births need live cells within one cell.
+	 */
+	private Set<Long> tilesToStep() {
+
+		Set<Long> tilesToStep = new HashSet<Long>();
+
+		for (long changedTileKey : changedTiles) {
+
+			int changedTileX = LongCellSet.unpackX(changedTileKey), changedTileY = LongCellSet.unpackY(changedTileKey);
+
+			for (int dx = -1; dx <= 1; dx++)
+				for (int dy = -1; dy <= 1; dy++) {
+					long tileKey = tileKey(changedTileX + dx, changedTileY + dy);
+					if (!tilesToStep.contains(tileKey)
+							&& (tiles.containsKey(tileKey) || hasNeighborCellsFacing(changedTileX + dx, changedTileY + dy)))
+						tilesToStep.add(tileKey);
+				}
+		}
+
+		return tilesToStep;
+	}
+
+	private boolean hasNeighborCellsFacing(int tileX, int tileY) {
+
+		for (int dx = -1; dx <= 1; dx++)
+			for (int dy = -1; dy <= 1; dy++) {
+				Tile neighbor = tiles.get(tileKey(tileX + dx, tileY + dy));
+				if (neighbor != null && hasCellsFacing(neighbor, -dx, -dy))
+					return true;
+			}
+		return false;
+	}
+
+	/**
+	 * Whether the tile has live cells on the edge (or corner) facing its
+	 * neighbor at (dx, dy)
+	 */
+	private static boolean hasCellsFacing(Tile tile, int dx, int dy) {
+
+		long columnMask = dx < 0 ? 1L : dx > 0 ? 1L << TILE_MASK : -1L;
+		int firstRow = dy > 0 ? TILE_MASK : 0, lastRow = dy < 0 ? 0 : TILE_MASK;
+
+		for (int row = firstRow; row <= lastRow; row++)
+			if ((tile.rows[row] & columnMask) != 0)
+				return true;
+		return false;
+	}
+
+	private long[] stepTile(Tile tile, Rule rule) {
+
+		long[] northWest = rowsOf(tile, -1, -1), north = rowsOf(tile, 0, -1), northEast = rowsOf(tile, 1, -1);
+		long[] west = rowsOf(tile, -1, 0), center = tile.rows, east = rowsOf(tile, 1, 0);
+		long[] southWest = rowsOf(tile, -1, 1), south = rowsOf(tile, 0, 1), southEast = rowsOf(tile, 1, 1);
+
+		long[] nextRows = tile.previousRows;
+
+		for (int row = 0; row < TILE_SIZE; row++) {
+
+			long aboveWest, above, aboveEast, belowWest, below, belowEast;
+			if (row == 0) {
+				aboveWest = northWest[TILE_MASK];
+				above = north[TILE_MASK];
+				aboveEast = northEast[TILE_MASK];
+			} else {
+				aboveWest = west[row - 1];
+				above = center[row - 1];
+				aboveEast = east[row - 1];
+			}
+			if (row == TILE_MASK) {
+				belowWest = southWest[0];
+				below = south[0];
+				belowEast = southEast[0];
+			} else {
+				belowWest = west[row + 1];
+				below = center[row + 1];
+				belowEast = east[row + 1];
+			}
+
+			nextRows[row] = Bitboards.nextWord(rule, center[row],
+				Bitboards.west(above, aboveWest), above, Bitboards.east(above, aboveEast),
+				Bitboards.west(center[row], west[row]), Bitboards.east(center[row], east[row]),
+				Bitboards.west(below, belowWest), below, Bitboards.east(below, belowEast));
+		}
+
+		return nextRows;
+	}
+
+	private long[] rowsOf(Tile tile, int dx, int dy) {
+		Tile neighbor = tiles.get(tileKey(tile.tileX + dx, tile.tileY + dy));
+		return neighbor == null ? EMPTY_ROWS : neighbor.rows;
+	}
+
+	/**
+	 * Every tile is stepped on the next tick, since still lifes under the old
+	 * rule may not be still under the new one
+	 */
+	public synchronized void setRule(Rule rule) {
+		if (rule != null && !rule.equals(getRule()))
+			changedTiles.addAll(tiles.keySet());
+		super.setRule(rule);
+	}
+
+	public synchronized void reset() {
+		super.reset();
+		tiles.clear();
+		changedTiles = new HashSet<Long>();
+		lastSteppedTiles = Collections.emptyList();
+		population = 0;
+		bornCells = killedCells = null;
+	}
+}
@@ -0,0 +1,283 @@
+package com.uprr.game.gameoflife.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import com.uprr.game.gameoflife.BitboardGame;
+import com.uprr.game.gameoflife.CycleDetector;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.GenerationJournal;
+import com.uprr.game.gameoflife.OffHeapBitboardGame;
+import com.uprr.game.gameoflife.PackedGame;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.TickMetrics;
+import com.uprr.game.gameoflife.TiledGame;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.io.MacrocellReader;
+import com.uprr.game.gameoflife.io.MacrocellWriter;
+import com.uprr.game.gameoflife.io.RleReader;
+import com.uprr.game.gameoflife.io.RleWriter;
+
+/**
+ * Headless entry point for simulation runs on machines without a display:
+ * loads a pattern, runs it for a number of generations (or until it settles)
+ * with nothing painted, then prints the throughput and final population.
+ * Never touches AWT.
+ *
+ * <pre>
+ * java -cp gameoflife.jar com.uprr.game.gameoflife.cli.BatchRunner \
+ *     --engine hashlife --generations 1000000 --jump 10 pattern.rle
+ * </pre>
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class BatchRunner {
+
+	public static final long DEFAULT_GENERATIONS = 1000;
+	static final int EXIT_OK = 0, EXIT_FAILED = 1, EXIT_USAGE = 2;
+	private static final List<String> ENGINES = Arrays.asList("game", "packed", "tiled", "bitboard", "offheap", "hashlife");
+
+	private static final String USAGE =
+		"Usage: BatchRunner [options] pattern-file\n"
+		+ "  pattern-file            .rle or .mc pattern, or a snapshot saved by the game\n"
+		+ "  --engine NAME           game, packed (default), tiled, bitboard, offheap or hashlife\n"
+		+ "  --torus WIDTHxHEIGHT    universe size for bitboard and offheap (default 1024x1024)\n"
+		+ "  --tick-mode MODE        tick mode for the game engine, e.g. active_set\n"
+		+ "  --rule RULE             rule to run under, e.g. B36/S23 (default: the pattern's)\n"
+		+ "  --generations N         generations to run (default "+DEFAULT_GENERATIONS+")\n"
+		+ "  --jump K                advance 2^K generations per step where they fit\n"
+		+ "  --stop-on-cycle         stop once the universe repeats an earlier generation\n"
+		+ "  --journal FILE          record the run to a generation journal\n"
+		+ "  --out FILE              save the final generation (.rle, .mc or snapshot)\n";
+
+	private String engine = "packed";
+	private int torusWidth = 1024, torusHeight = 1024;
+	private Game.TickMode tickMode;
+	private Rule rule;
+	private long generations = DEFAULT_GENERATIONS;
+	private int log2Jump;
+	private boolean isStoppingOnCycle;
+	private Path patternFile, journalFile, outFile;
+
+	public static void main(String[] args) {
+		int exitCode = run(args, System.out, System.err);
+		if (exitCode != EXIT_OK)
+			System.exit(exitCode);
+	}
+
+	/**
+	 * @return the process exit code
+	 */
+	static int run(String[] args, PrintStream out, PrintStream err) {
+
+		BatchRunner batchRunner = new BatchRunner();
+		try {
+			batchRunner.parseArgs(args);
+		} catch (IllegalArgumentException iae) {
+			err.println(iae.getMessage());
+			err.print(USAGE);
+			return EXIT_USAGE;
+		}
+
+		// the arguments are good, so anything thrown now is the run failing
+		try {
+			batchRunner.run(out);
+			return EXIT_OK;
+		} catch (IOException | IllegalArgumentException e) {
+			err.println("Run failed: "+e.getMessage());
+			return EXIT_FAILED;
+		}
+	}
+
+	void parseArgs(String[] args) {
+
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("--")) {
+				if (patternFile != null)
+					throw new IllegalArgumentException("Only one pattern file can be run: "+arg);
+				patternFile = Paths.get(arg);
+				continue;
+			}
+			if (arg.equals("--stop-on-cycle")) {
+				isStoppingOnCycle = true;
+				continue;
+			}
+
+			if (i + 1 == args.length)
+				throw new IllegalArgumentException(arg+" needs a value");
+			String value = args[++i];
+			switch (arg) {
+			case "--engine":
+				engine = value.toLowerCase(Locale.ROOT);
+				break;
+			case "--torus":
+				String[] size = value.toLowerCase(Locale.ROOT).split("x", -1);
+				if (size.length != 2)
+					throw new IllegalArgumentException("Torus size must be of the form 1024x1024: "+value);
+				torusWidth = parseInt(size[0], arg);
+				torusHeight = parseInt(size[1], arg);
+				if (torusWidth == 0 || torusWidth % BitboardGame.WORD_BITS != 0 || torusHeight == 0)
+					throw new IllegalArgumentException("Torus width must be a positive multiple of "
+							+BitboardGame.WORD_BITS+" and height positive: "+value);
+				break;
+			case "--tick-mode":
+				try {
+					tickMode = Game.TickMode.valueOf(value.toUpperCase(Locale.ROOT));
+				} catch (IllegalArgumentException iae) {
+					throw new IllegalArgumentException("Unknown tick mode: "+value);
+				}
+				break;
+			case "--rule":
+				rule = Rule.parse(value);
+				break;
+			case "--generations":
+				generations = parseLong(value, arg);
+				break;
+			case "--jump":
+				log2Jump = parseInt(value, arg);
+				if (log2Jump > Game.MAX_LOG2_GENERATIONS)
+					throw new IllegalArgumentException("--jump must be from 0 to "+Game.MAX_LOG2_GENERATIONS+": "+value);
+				break;
+			case "--journal":
+				journalFile = Paths.get(value);
+				break;
+			case "--out":
+				outFile = Paths.get(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: "+arg);
+			}
+		}
+
+		if (patternFile == null)
+			throw new IllegalArgumentException("A pattern file is required");
+		if (tickMode != null && !engine.equals("game"))
+			throw new IllegalArgumentException("--tick-mode only applies to the game engine");
+		if (!ENGINES.contains(engine))
+			throw new IllegalArgumentException("Unknown engine: "+engine);
+	}
+
+	private static long parseLong(String value, String option) {
+		try {
+			long number = Long.parseLong(value);
+			if (number < 0)
+				throw new IllegalArgumentException(option+" can't be negative: "+value);
+			return number;
+		} catch (NumberFormatException nfe) {
+			throw new IllegalArgumentException(option+" needs a number: "+value);
+		}
+	}
+
+	private static int parseInt(String value, String option) {
+		long number = parseLong(value, option);
+		if (number > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(option+" is too large: "+value);
+		return (int)number;
+	}
+
+	Game createGame() {
+		switch (engine) {
+		case "game":
+			return tickMode != null ? new Game(tickMode) : new Game();
+		case "packed":
+			return new PackedGame();
+		case "tiled":
+			return new TiledGame();
+		case "bitboard":
+			return new BitboardGame(torusWidth, torusHeight);
+		case "offheap":
+			return new OffHeapBitboardGame(torusWidth, torusHeight);
+		case "hashlife":
+			return new HashLifeGame();
+		default:
+			throw new IllegalArgumentException("Unknown engine: "+engine);
+		}
+	}
+
+	/**
+	 * Loads the pattern, runs it and prints a summary
+	 */
+	void run(PrintStream out) throws IOException {
+
+		Game game = createGame();
+		game.getTickMetrics().register(BatchRunner.class.getSimpleName());	// for JConsole during long runs
+		try {
+			load(game);
+			if (rule != null)
+				game.setRule(rule);
+
+			CycleDetector cycleDetector = isStoppingOnCycle ? new CycleDetector() : null;
+			GenerationJournal journal = journalFile != null ? new GenerationJournal(journalFile) : null;
+			long startGeneration = game.getGeneration(), endGeneration = startGeneration + generations;
+			long startNanos = System.nanoTime();
+			try {
+				boolean isCycling = observe(game, cycleDetector, journal);
+				while (!isCycling && game.getGeneration() < endGeneration) {
+					if (log2Jump > 0 && endGeneration - game.getGeneration() >= 1L << log2Jump)
+						game.advanceByPowerOfTwo(log2Jump);
+					else
+						game.tick();
+					isCycling = observe(game, cycleDetector, journal);
+				}
+			} finally {
+				if (journal != null)
+					journal.close();
+			}
+			long elapsedNanos = System.nanoTime() - startNanos;
+
+			long generationsRun = game.getGeneration() - startGeneration;
+			out.println("Engine:      "+game.getClass().getSimpleName()+" ("+game.getRule()+")");
+			out.println("Generations: "+generationsRun+" (now at generation "+game.getGeneration()+")");
+			if (cycleDetector != null && cycleDetector.getPeriod() > 0)
+				out.println("Stopped:     cycle of period "+cycleDetector.getPeriod()
+						+" from generation "+cycleDetector.getOnset());
+			out.println("Population:  "+game.getPopulation());
+			out.println(String.format(Locale.ROOT, "Elapsed:     %.3f s, %.1f generations/s",
+					elapsedNanos / 1e9, generationsRun / Math.max(elapsedNanos / 1e9, 1e-9)));
+			TickMetrics tickMetrics = game.getTickMetrics();
+			out.println(String.format(Locale.ROOT, "Step time:   p50 %.3f ms, p99 %.3f ms, max %.3f ms",
+					tickMetrics.getMedianTickNanos() / 1e6, tickMetrics.getP99TickNanos() / 1e6,
+					tickMetrics.getMaxTickNanos() / 1e6));
+
+			if (outFile != null)
+				save(game);
+		} finally {
+			game.getTickMetrics().unregister();
+			if (game instanceof OffHeapBitboardGame)
+				((OffHeapBitboardGame)game).close();
+		}
+	}
+
+	private static boolean observe(Game game, CycleDetector cycleDetector, GenerationJournal journal) throws IOException {
+		if (journal != null)
+			journal.record(game);
+		return cycleDetector != null && cycleDetector.observe(game);
+	}
+
+	private void load(Game game) throws IOException {
+		String fileName = patternFile.toString().toLowerCase(Locale.ROOT);
+		if (fileName.endsWith(".rle"))
+			RleReader.read(patternFile, game);
+		else if (fileName.endsWith(".mc"))
+			MacrocellReader.read(patternFile, game);
+		else
+			game.load(patternFile);
+	}
+
+	private void save(Game game) throws IOException {
+		String fileName = outFile.toString().toLowerCase(Locale.ROOT);
+		if (fileName.endsWith(".rle"))
+			RleWriter.write(game, outFile);
+		else if (fileName.endsWith(".mc"))
+			MacrocellWriter.write(game, outFile);
+		else
+			game.save(outFile);
+	}
+}
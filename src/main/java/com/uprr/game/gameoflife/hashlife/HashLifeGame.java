@@ -0,0 +1,447 @@
+package com.uprr.game.gameoflife.hashlife;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Rule;
+
+/**
+ * HashLife engine: the universe is a memoized quadtree of canonical nodes,
+ * and each node remembers its center square some power of two generations
+ * on.  advanceByPowerOfTwo(k) jumps 2^k generations in one step, so regular,
+ * repetitive patterns reach generation 10^6 and beyond in milliseconds.
+ *
+ * The root is centered on the origin: a level L root covers
+ * -2^(L-1) <= x, y < 2^(L-1).  Born and killed cells are worked out on request
+ * by diffing the roots before and after the last step (identical subtrees
+ * are skipped).
+ *
+ * Big jumps can carry a pattern past the int coordinates a Cell holds.  The
+ * game still steps it, but listing a cell out there (getLiveCells(), the
+ * born and killed cells) throws an ArithmeticException.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class HashLifeGame extends Game {
+
+	public static final int DEFAULT_MAX_CACHED_NODES = 1 << 20;
+	private static final int MIN_ROOT_LEVEL = 3;
+	// coordinates within a root are longs, and a level 64 root's corner overflows them
+	private static final int MAX_ROOT_LEVEL = 63;
+
+	private final NodeFactory nodeFactory = new NodeFactory();
+	private final int maxCachedNodes;
+	private Node root, previousRoot;
+	private boolean hasStepped;
+	private List<Cell> bornCells, killedCells;
+
+	public HashLifeGame() {
+		this(DEFAULT_MAX_CACHED_NODES);
+	}
+
+	/**
+	 * @param maxCachedNodes node count past which unreachable nodes and
+	 * 	memoized results are dropped before the next step
+	 */
+	public HashLifeGame(int maxCachedNodes) {
+		this.maxCachedNodes = maxCachedNodes;
+		this.root = nodeFactory.empty(MIN_ROOT_LEVEL);
+	}
+
+	public NodeFactory getNodeFactory() {
+		return nodeFactory;
+	}
+
+	public synchronized Node getRoot() {
+		return root;
+	}
+
+	/**
+	 * Replaces the universe with a tree built by this game's node factory,
+	 * centered on the origin
+	 */
+	public synchronized void setRoot(Node root) {
+
+		if (root.level < 1)
+			throw new IllegalArgumentException("Root must be at least level 1: "+root);
+		if (root != nodeFactory.node(root.nw, root.ne, root.sw, root.se))
+			throw new IllegalArgumentException("Root wasn't built by this game's node factory: "+root);
+
+		this.root = root;
+		while (this.root.level < MIN_ROOT_LEVEL)
+			this.root = expand(this.root);
+		previousRoot = null;
+		bornCells = killedCells = null;
+		cellEdited();
+	}
+
+	public synchronized List<Cell> getLiveCells() {
+		List<Cell> liveCells = new ArrayList<Cell>((int)Math.min(root.population, Integer.MAX_VALUE));
+		addCells(liveCells, root, rootCorner(root), rootCorner(root));
+		return Collections.unmodifiableList(liveCells);
+	}
+
+	/**
+	 * getLiveCells() is already a read-only copy
+	 */
+	public List<Cell> getLiveCellsView() {
+		return getLiveCells();
+	}
+
+	/**
+	 * Only descends into nodes that overlap the region and have live cells
+	 */
+	public synchronized List<Cell> getLiveCells(int left, int top, int width, int height) {
+		checkRegion(width, height);
+		List<Cell> cellList = new ArrayList<Cell>();
+		addCellsIn(cellList, root, rootCorner(root), rootCorner(root), left, top, (long)left + width, (long)top + height);
+		return Collections.unmodifiableList(cellList);
+	}
+
+	private static void addCellsIn(List<Cell> cellList, Node node, long x, long y, long left, long top, long right, long bottom) {
+
+		long lastX = x + ((1L << node.level) - 1), lastY = y + ((1L << node.level) - 1);	// no overflow at level 63
+		if (node.population == 0 || x >= right || y >= bottom || lastX < left || lastY < top)
+			return;
+		if (x >= left && y >= top && lastX < right && lastY < bottom) {
+			addCells(cellList, node, x, y);
+			return;
+		}
+
+		long half = 1L << (node.level - 1);	// level 0 nodes are wholly in or out
+		addCellsIn(cellList, node.nw, x, y, left, top, right, bottom);
+		addCellsIn(cellList, node.ne, x + half, y, left, top, right, bottom);
+		addCellsIn(cellList, node.sw, x, y + half, left, top, right, bottom);
+		addCellsIn(cellList, node.se, x + half, y + half, left, top, right, bottom);
+	}
+
+	/**
+	 * Cells the last step brought to life, or null before the first step
+	 */
+	public synchronized List<Cell> getBornCells() {
+		findChanges();
+		return bornCells;
+	}
+
+	/**
+	 * Cells the last step killed, or null before the first step
+	 */
+	public synchronized List<Cell> getKilledCells() {
+		findChanges();
+		return killedCells;
+	}
+
+	public synchronized long getPopulation() {
+		return root.population;
+	}
+
+	private static long rootCorner(Node root) {
+		return -(1L << (root.level - 1));
+	}
+
+	private static void addCells(List<Cell> cellList, Node node, long x, long y) {
+
+		if (node.population == 0)
+			return;
+		if (node.level == 0) {
+			if (x != (int)x || y != (int)y)
+				throw new ArithmeticException("Cell at ("+x+", "+y+") is outside the int coordinates of a Cell");
+			cellList.add(Cell.valueOf((int)x, (int)y));
+			return;
+		}
+
+		long half = 1L << (node.level - 1);
+		addCells(cellList, node.nw, x, y);
+		addCells(cellList, node.ne, x + half, y);
+		addCells(cellList, node.sw, x, y + half);
+		addCells(cellList, node.se, x + half, y + half);
+	}
+
+	/**
+	 * Diffs the roots before and after the last step (once per step)
+	 */
+	private void findChanges() {
+
+		if (bornCells != null || !hasStepped)
+			return;
+
+		List<Cell> born = new ArrayList<Cell>(), killed = new ArrayList<Cell>();
+		if (previousRoot != null) {
+			Node before = previousRoot, after = root;
+			while (before.level < after.level)
+				before = expand(before);
+			while (after.level < before.level)
+				after = expand(after);
+			addChanges(born, killed, before, after, rootCorner(after), rootCorner(after));
+		}
+		bornCells = Collections.unmodifiableList(born);
+		killedCells = Collections.unmodifiableList(killed);
+	}
+
+	private static void addChanges(List<Cell> born, List<Cell> killed, Node before, Node after, long x, long y) {
+
+		if (before == after)
+			return;
+		if (before.population == 0) {
+			addCells(born, after, x, y);
+			return;
+		}
+		if (after.population == 0) {
+			addCells(killed, before, x, y);
+			return;
+		}
+
+		long half = 1L << (after.level - 1);
+		addChanges(born, killed, before.nw, after.nw, x, y);
+		addChanges(born, killed, before.ne, after.ne, x + half, y);
+		addChanges(born, killed, before.sw, after.sw, x, y + half);
+		addChanges(born, killed, before.se, after.se, x + half, y + half);
+	}
+
+	public synchronized void bringCellToLife(Cell cell) {
+
+		if (isCellAlive(cell))
+			throw new IllegalArgumentException("Cell already alive at this location: "+cell);
+
+		findChanges();	// so last step's changes don't pick this up
+		setCell(cell, true);
+		cellEdited();
+	}
+
+	public synchronized void killCell(Cell cell) {
+
+		if (!isCellAlive(cell))
+			throw new IllegalArgumentException("No cell alive at this location: "+cell);
+
+		findChanges();
+		setCell(cell, false);
+		cellEdited();
+	}
+
+	public synchronized boolean isCellAlive(Cell cell) {
+
+		if (!rootContains(cell.getX(), cell.getY()))
+			return false;
+
+		Node node = root;
+		long x = cell.getX() - rootCorner(root), y = cell.getY() - rootCorner(root);
+		while (node.level > 0 && node.population > 0) {
+			long half = 1L << (node.level - 1);
+			if (x < half)
+				node = y < half ? node.nw : node.sw;
+			else
+				node = y < half ? node.ne : node.se;
+			x &= half - 1;
+			y &= half - 1;
+		}
+		return node.population > 0;
+	}
+
+	private boolean rootContains(long x, long y) {
+		long corner = rootCorner(root);
+		return x >= corner && y >= corner && x < -corner && y < -corner;
+	}
+
+	private void setCell(Cell cell, boolean alive) {
+
+		while (!rootContains(cell.getX(), cell.getY()))
+			root = expand(root);
+		root = setCell(root, cell.getX() - rootCorner(root), cell.getY() - rootCorner(root), alive);
+	}
+
+	private Node setCell(Node node, long x, long y, boolean alive) {
+
+		if (node.level == 0)
+			return nodeFactory.leaf(alive);
+
+		long half = 1L << (node.level - 1);
+		if (x < half) {
+			if (y < half)
+				return nodeFactory.node(setCell(node.nw, x, y, alive), node.ne, node.sw, node.se);
+			else
+				return nodeFactory.node(node.nw, node.ne, setCell(node.sw, x, y - half, alive), node.se);
+		} else {
+			if (y < half)
+				return nodeFactory.node(node.nw, setCell(node.ne, x - half, y, alive), node.sw, node.se);
+			else
+				return nodeFactory.node(node.nw, node.ne, node.sw, setCell(node.se, x - half, y - half, alive));
+		}
+	}
+
+	public synchronized int getNeighborCountAndDeadCells(Cell cell, Set<Cell> deadNeighbors) {
+
+		int neighborCount = 0;
+
+		for (int x = cell.getX() - 1; x <= cell.getX()+1; x++) {
+			for (int y = cell.getY() - 1; y <= cell.getY()+1; y++)  {
+
+				if (x == cell.getX() && y == cell.getY()) // Don't count myself
+					continue;
+
+				Cell adjacentCell = Cell.valueOf(x, y);
+				if (isCellAlive(adjacentCell))
+					neighborCount++;
+				else if (deadNeighbors != null)
+					deadNeighbors.add(adjacentCell);
+			}
+		}
+
+		return neighborCount;
+	}
+
+	public synchronized void tick() {
+		advanceByPowerOfTwo(0);
+	}
+
+	public synchronized void advanceByPowerOfTwo(int log2Generations) {
+
+		checkLog2Generations(log2Generations);
+
+		long startNanos = System.nanoTime();
+		if (nodeFactory.size() > maxCachedNodes)
+			nodeFactory.retainOnly(root);
+
+		// Pad until the pattern sits in the center quarter and can't outgrow
+		// the center half (the part the successor covers) in 2^k generations
+		Node padded = root;
+		while (padded.level < log2Generations + 3 || centerQuarterPopulation(padded) != padded.population) {
+			if (padded.level == MAX_ROOT_LEVEL)
+				throw new IllegalArgumentException("Pattern could outgrow the plane in 2^"+log2Generations+" generations");
+			padded = expand(padded);
+		}
+
+		previousRoot = root;
+		hasStepped = true;
+		root = successor(padded, log2Generations);
+		while (root.level < MIN_ROOT_LEVEL)
+			root = expand(root);
+		bornCells = killedCells = null;
+		addGenerations(1L << log2Generations);
+		// cells aren't evaluated one by one, and births and deaths are only worked out on request
+		recordTick(startNanos, -1, -1, -1);
+	}
+
+	private long centerQuarterPopulation(Node node) {
+		return node.level < 2 ? 0 : centeredSubnode(centeredSubnode(node)).population;
+	}
+
+	/**
+	 * Same square with an empty border, one level up (still centered on the origin)
+	 */
+	private Node expand(Node node) {
+		Node border = nodeFactory.empty(node.level - 1);
+		return nodeFactory.node(
+			nodeFactory.node(border, border, border, node.nw),
+			nodeFactory.node(border, border, node.ne, border),
+			nodeFactory.node(border, node.sw, border, border),
+			nodeFactory.node(node.se, border, border, border));
+	}
+
+	private Node centeredSubnode(Node node) {
+		return nodeFactory.node(node.nw.se, node.ne.sw, node.sw.ne, node.se.nw);
+	}
+
+	/**
+	 * Center half of a node (one level down), 2^min(log2Generations, level-2)
+	 * generations on
+	 */
+	private Node successor(Node node, int log2Generations) {
+
+		if (node.population == 0)
+			return nodeFactory.empty(node.level - 1);
+
+		int step = Math.min(log2Generations, node.level - 2);
+		if (node.resultStep == step)
+			return node.result;
+
+		Node result;
+		if (node.level == 2)
+			result = centerAfterOneGeneration(node);
+		else {
+			// nine overlapping sub-squares, one level down
+			Node n00 = node.nw,
+				n01 = nodeFactory.node(node.nw.ne, node.ne.nw, node.nw.se, node.ne.sw),
+				n02 = node.ne,
+				n10 = nodeFactory.node(node.nw.sw, node.nw.se, node.sw.nw, node.sw.ne),
+				n11 = centeredSubnode(node),
+				n12 = nodeFactory.node(node.ne.sw, node.ne.se, node.se.nw, node.se.ne),
+				n20 = node.sw,
+				n21 = nodeFactory.node(node.sw.ne, node.se.nw, node.sw.se, node.se.sw),
+				n22 = node.se;
+
+			// full speed advances both halves of the step, otherwise only the second
+			boolean isFullSpeed = step == node.level - 2;
+			Node r00 = isFullSpeed ? successor(n00, log2Generations) : centeredSubnode(n00),
+				r01 = isFullSpeed ? successor(n01, log2Generations) : centeredSubnode(n01),
+				r02 = isFullSpeed ? successor(n02, log2Generations) : centeredSubnode(n02),
+				r10 = isFullSpeed ? successor(n10, log2Generations) : centeredSubnode(n10),
+				r11 = isFullSpeed ? successor(n11, log2Generations) : centeredSubnode(n11),
+				r12 = isFullSpeed ? successor(n12, log2Generations) : centeredSubnode(n12),
+				r20 = isFullSpeed ? successor(n20, log2Generations) : centeredSubnode(n20),
+				r21 = isFullSpeed ? successor(n21, log2Generations) : centeredSubnode(n21),
+				r22 = isFullSpeed ? successor(n22, log2Generations) : centeredSubnode(n22);
+
+			result = nodeFactory.node(
+				successor(nodeFactory.node(r00, r01, r10, r11), log2Generations),
+				successor(nodeFactory.node(r01, r02, r11, r12), log2Generations),
+				successor(nodeFactory.node(r10, r11, r20, r21), log2Generations),
+				successor(nodeFactory.node(r11, r12, r21, r22), log2Generations));
+		}
+
+		node.result = result;
+		node.resultStep = step;
+		return result;
+	}
+
+	/**
+	 * Base case: the center 2x2 of a 4x4 node, one generation on
+	 */
+	private Node centerAfterOneGeneration(Node node) {
+
+		boolean[][] cells = new boolean[4][4];
+		for (int y = 0; y < 4; y++)
+			for (int x = 0; x < 4; x++) {
+				Node quadrant = y < 2 ? (x < 2 ? node.nw : node.ne) : (x < 2 ? node.sw : node.se);
+				Node leaf = (y & 1) == 0 ? ((x & 1) == 0 ? quadrant.nw : quadrant.ne)
+						: ((x & 1) == 0 ? quadrant.sw : quadrant.se);
+				cells[y][x] = leaf.population != 0;
+			}
+
+		return nodeFactory.node(
+			nodeFactory.leaf(isAliveNextGeneration(cells, 1, 1)),
+			nodeFactory.leaf(isAliveNextGeneration(cells, 2, 1)),
+			nodeFactory.leaf(isAliveNextGeneration(cells, 1, 2)),
+			nodeFactory.leaf(isAliveNextGeneration(cells, 2, 2)));
+	}
+
+	private boolean isAliveNextGeneration(boolean[][] cells, int cellX, int cellY) {
+
+		int neighborCount = 0;
+		for (int y = cellY - 1; y <= cellY + 1; y++)
+			for (int x = cellX - 1; x <= cellX + 1; x++)
+				if ((x != cellX || y != cellY) && cells[y][x])
+					neighborCount++;
+
+		return getRule().isAliveNextGeneration(cells[cellY][cellX], neighborCount);
+	}
+
+	/**
+	 * Memoized results were worked out under the old rule, so they're dropped
+	 */
+	public synchronized void setRule(Rule rule) {
+		if (rule != null && !rule.equals(getRule()))
+			nodeFactory.retainOnly(root, previousRoot);
+		super.setRule(rule);
+	}
+
+	public synchronized void reset() {
+		super.reset();
+		root = nodeFactory.empty(MIN_ROOT_LEVEL);
+		previousRoot = null;
+		bornCells = killedCells = null;
+	}
+}
@@ -0,0 +1,103 @@
+package com.uprr.game.gameoflife.hashlife;
+
+/**
+ * Canonical (hash-consed) quadtree node: a 2^level x 2^level square of cells.
+ * Level 0 nodes are single cells.  Nodes are only created through a
+ * NodeFactory, which guarantees equal squares are the same instance, so
+ * children are compared by identity.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public final class Node {
+
+	static final Node DEAD = new Node(false), ALIVE = new Node(true);
+
+	final int level;
+	final Node nw, ne, sw, se;
+	final long population;
+	private final int hash;
+
+	// Memoized successor (the center square, resultStep generations on), or -1
+	Node result;
+	int resultStep = -1;
+
+	private Node(boolean alive) {
+		this.level = 0;
+		this.nw = this.ne = this.sw = this.se = null;
+		this.population = alive ? 1 : 0;
+		this.hash = alive ? 1 : 0;
+	}
+
+	Node(Node nw, Node ne, Node sw, Node se) {
+		this.level = nw.level + 1;
+		this.nw = nw;
+		this.ne = ne;
+		this.sw = sw;
+		this.se = se;
+		this.population = nw.population + ne.population + sw.population + se.population;
+		this.hash = (((nw.hash * 31 + ne.hash) * 31 + sw.hash) * 31 + se.hash) * 31 + level;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Width (and height) in cells
+	 */
+	public long getSize() {
+		return 1L << level;
+	}
+
+	public long getPopulation() {
+		return population;
+	}
+
+	/**
+	 * For level 0 nodes (single cells)
+	 */
+	public boolean isAlive() {
+		return population != 0;
+	}
+
+	public Node getNorthWest() {
+		return nw;
+	}
+
+	public Node getNorthEast() {
+		return ne;
+	}
+
+	public Node getSouthWest() {
+		return sw;
+	}
+
+	public Node getSouthEast() {
+		return se;
+	}
+
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Equal when the children are the same (canonical) instances
+	 */
+	public boolean equals(Object o) {
+		if (o == this)
+			return true;
+		else if (!(o instanceof Node))
+			return false;
+		else {
+			Node otherNode = (Node)o;
+			return otherNode.level == level && level > 0
+				&& otherNode.nw == nw && otherNode.ne == ne
+				&& otherNode.sw == sw && otherNode.se == se;
+		}
+	}
+
+	public String toString() {
+		return String.format("Node (level=%d, population=%d)", level, population);
+	}
+}
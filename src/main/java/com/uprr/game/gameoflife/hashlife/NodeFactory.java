@@ -0,0 +1,77 @@
+package com.uprr.game.gameoflife.hashlife;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash-conses quadtree nodes, so every distinct square exists once and
+ * repeated regions of a pattern share storage (and memoized results).
+ *
+ * @author slenagh@up.com
+ *
+ */
+public final class NodeFactory {
+
+	private Map<Node, Node> nodes = new HashMap<Node, Node>();
+	private final List<Node> emptyNodes = new ArrayList<Node>();
+
+	public NodeFactory() {
+		emptyNodes.add(Node.DEAD);
+	}
+
+	public Node leaf(boolean alive) {
+		return alive ? Node.ALIVE : Node.DEAD;
+	}
+
+	public Node node(Node nw, Node ne, Node sw, Node se) {
+
+		if (nw.level != ne.level || nw.level != sw.level || nw.level != se.level)
+			throw new IllegalArgumentException(String.format("Child levels differ: %d, %d, %d, %d",
+					nw.level, ne.level, sw.level, se.level));
+
+		Node node = new Node(nw, ne, sw, se);
+		Node canonicalNode = nodes.putIfAbsent(node, node);
+		return canonicalNode != null ? canonicalNode : node;
+	}
+
+	public Node empty(int level) {
+		while (emptyNodes.size() <= level) {
+			Node smaller = emptyNodes.get(emptyNodes.size() - 1);
+			emptyNodes.add(node(smaller, smaller, smaller, smaller));
+		}
+		return emptyNodes.get(level);
+	}
+
+	/**
+	 * Number of distinct (non-leaf) nodes held
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Drops every node (and memoized result) not reachable from the given
+	 * roots, which stay canonical
+	 */
+	void retainOnly(Node... roots) {
+
+		nodes = new HashMap<Node, Node>();
+		for (Node emptyNode : emptyNodes)
+			retain(emptyNode);
+		for (Node root : roots)
+			if (root != null)
+				retain(root);
+	}
+
+	private void retain(Node node) {
+		if (node.level > 0 && nodes.putIfAbsent(node, node) == null) {
+			node.result = null;
+			node.resultStep = -1;
+			retain(node.nw);
+			retain(node.ne);
+			retain(node.sw);
+			retain(node.se);
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.uprr.game.gameoflife.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.hashlife.Node;
+import com.uprr.game.gameoflife.hashlife.NodeFactory;
+
+/**
+ * Reader for Golly's Macrocell (.mc) format, a deduplicated quadtree:
+ *
+ * <pre>
+ * [M2] (golly 2.0)
+ * #R B3/S23
+ * .*$..*$***$
+ * 4 0 0 0 1
+ * </pre>
+ *
+ * Each line after the header is a node, numbered from 1: an 8x8 leaf drawn
+ * with '.', '*' and '$' (end of row), or "level nw ne sw se" with children by
+ * number (0 for empty).  The last node is the root, centered on the origin.
+ *
+ * Nodes are built through a hash-consing NodeFactory as they're read, so the
+ * tree takes memory in proportion to the file, not the population.  A
+ * HashLifeGame gets the tree as its root and nothing is expanded; other games
+ * get the cells in packed batches (Game.bringCellsToLife).  A #G line sets
+ * the game's generation.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class MacrocellReader {
+
+	public static final String HEADER = "[M2]";
+
+	private static final int LEAF_LEVEL = 3, LEAF_SIZE = 1 << LEAF_LEVEL;
+	private static final int BATCH_CELLS = 4096;
+
+	private final BufferedReader reader;
+	private String ruleNotation;
+	private Rule rule;
+	private long generation;
+
+	private final long[] batch = new long[BATCH_CELLS];
+	private int batchSize;
+
+	public MacrocellReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+	}
+
+	public static MacrocellReader read(Path macrocellFile, Game game) throws IOException {
+		try (Reader fileReader = Files.newBufferedReader(macrocellFile, StandardCharsets.US_ASCII)) {
+			MacrocellReader macrocellReader = new MacrocellReader(fileReader);
+			macrocellReader.read(game);
+			return macrocellReader;
+		}
+	}
+
+	/**
+	 * Replaces the game's universe with the pattern, at the file's generation
+	 */
+	public void read(Game game) throws IOException {
+
+		NodeFactory nodeFactory = game instanceof HashLifeGame ? ((HashLifeGame)game).getNodeFactory() : new NodeFactory();
+		Node root = readTree(nodeFactory);
+
+		game.reset();
+		if (rule != null)
+			game.setRule(rule);
+		if (root != null) {
+			if (game instanceof HashLifeGame)
+				((HashLifeGame)game).setRoot(root);
+			else {
+				long corner = -(1L << (root.getLevel() - 1));
+				addCells(game, root, corner, corner);
+				flush(game);
+			}
+		}
+		game.setGeneration(generation);
+	}
+
+	/**
+	 * Root of the file's tree, or null if it has no nodes
+	 */
+	private Node readTree(NodeFactory nodeFactory) throws IOException {
+
+		String line = reader.readLine();
+		if (line == null || !line.startsWith(HEADER))
+			throw new IOException("Not a Macrocell file (no "+HEADER+" header)");
+
+		List<Node> nodes = new ArrayList<Node>();
+		nodes.add(null);	// node numbers start at 1
+		while ((line = reader.readLine()) != null) {
+
+			line = line.trim();
+			if (line.startsWith("#R"))
+				setRule(line.substring(2).trim());
+			else if (line.startsWith("#G"))
+				generation = parseNumber(line.substring(2).trim(), line);
+			if (line.isEmpty() || line.startsWith("#"))
+				continue;
+
+			char first = line.charAt(0);
+			if (first == '.' || first == '*' || first == '$')
+				nodes.add(readLeaf(nodeFactory, line));
+			else
+				nodes.add(readNode(nodeFactory, nodes, line));
+		}
+
+		return nodes.get(nodes.size() - 1);
+	}
+
+	private Node readLeaf(NodeFactory nodeFactory, String line) throws IOException {
+
+		boolean[][] cells = new boolean[LEAF_SIZE][LEAF_SIZE];
+		int x = 0, y = 0;
+		for (char tag : line.toCharArray()) {
+			if (tag == '$') {
+				x = 0;
+				y++;
+				continue;
+			}
+			if (tag != '.' && tag != '*')
+				throw new IOException("Unsupported Macrocell cell state '"+tag+"': "+line);
+			if (x >= LEAF_SIZE || y >= LEAF_SIZE)
+				throw new IOException("Macrocell leaf is bigger than "+LEAF_SIZE+"x"+LEAF_SIZE+": "+line);
+			cells[y][x++] = tag == '*';
+		}
+
+		return buildNode(nodeFactory, cells, LEAF_LEVEL, 0, 0);
+	}
+
+	private static Node buildNode(NodeFactory nodeFactory, boolean[][] cells, int level, int x, int y) {
+
+		if (level == 0)
+			return nodeFactory.leaf(cells[y][x]);
+
+		int half = 1 << (level - 1);
+		return nodeFactory.node(
+			buildNode(nodeFactory, cells, level - 1, x, y),
+			buildNode(nodeFactory, cells, level - 1, x + half, y),
+			buildNode(nodeFactory, cells, level - 1, x, y + half),
+			buildNode(nodeFactory, cells, level - 1, x + half, y + half));
+	}
+
+	private Node readNode(NodeFactory nodeFactory, List<Node> nodes, String line) throws IOException {
+
+		String[] fields = line.split("\\s+");
+		if (fields.length != 5)
+			throw new IOException("Macrocell node must be of the form level nw ne sw se: "+line);
+
+		int level = (int)parseNumber(fields[0], line);
+		if (level <= LEAF_LEVEL || level > 63)
+			throw new IOException("Macrocell node level must be from "+(LEAF_LEVEL + 1)+" to 63: "+line);
+
+		Node[] children = new Node[4];
+		for (int i = 0; i < children.length; i++) {
+			long childNumber = parseNumber(fields[i + 1], line);
+			if (childNumber >= nodes.size())
+				throw new IOException("Macrocell node refers to a later node: "+line);
+			children[i] = childNumber == 0 ? nodeFactory.empty(level - 1) : nodes.get((int)childNumber);
+			if (children[i].getLevel() != level - 1)
+				throw new IOException("Macrocell node's children must be level "+(level - 1)+": "+line);
+		}
+
+		return nodeFactory.node(children[0], children[1], children[2], children[3]);
+	}
+
+	private static long parseNumber(String value, String line) throws IOException {
+		try {
+			long number = Long.parseLong(value);
+			if (number < 0)
+				throw new IOException("Macrocell numbers can't be negative: "+line);
+			return number;
+		} catch (NumberFormatException nfe) {
+			throw new IOException("Macrocell line has a bad number: "+line, nfe);
+		}
+	}
+
+	private void setRule(String notation) {
+		ruleNotation = notation;
+		try {
+			rule = Rule.parse(notation);
+		} catch (IllegalArgumentException iae) {
+			rule = null;	// e.g. B0, non-totalistic or bounded-grid rules
+		}
+	}
+
+	private void addCells(Game game, Node node, long x, long y) throws IOException {
+
+		if (node.getPopulation() == 0)
+			return;
+		if (node.getLevel() == 0) {
+			if (x < Integer.MIN_VALUE || y < Integer.MIN_VALUE || x > Integer.MAX_VALUE || y > Integer.MAX_VALUE)
+				throw new IOException("Macrocell pattern runs past the edge of the plane");
+			batch[batchSize++] = Cell.pack((int)x, (int)y);
+			if (batchSize == batch.length)
+				flush(game);
+			return;
+		}
+
+		long half = 1L << (node.getLevel() - 1);
+		addCells(game, node.getNorthWest(), x, y);
+		addCells(game, node.getNorthEast(), x + half, y);
+		addCells(game, node.getSouthWest(), x, y + half);
+		addCells(game, node.getSouthEast(), x + half, y + half);
+	}
+
+	private void flush(Game game) {
+		game.bringCellsToLife(batch, 0, batchSize);
+		batchSize = 0;
+	}
+
+	/**
+	 * Rule as written on the #R line, or null if there was none
+	 */
+	public String getRuleNotation() {
+		return ruleNotation;
+	}
+
+	/**
+	 * Rule applied to the game, or null if the file had none or had one Rule
+	 * doesn't support
+	 */
+	public Rule getRule() {
+		return rule;
+	}
+
+	/**
+	 * From the #G line, or 0
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+}
@@ -0,0 +1,146 @@
+package com.uprr.game.gameoflife.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.hashlife.Node;
+
+/**
+ * Writes a game as a Macrocell (.mc) file (see MacrocellReader), one line per
+ * distinct non-empty node, so repeated regions are written once.  A
+ * HashLifeGame's tree is written as it stands; other games' cells are first
+ * hash-consed into a quadtree.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class MacrocellWriter {
+
+	private static final int LEAF_LEVEL = 3, LEAF_SIZE = 1 << LEAF_LEVEL;
+	private static final int BATCH_CELLS = 4096;
+
+	private final Writer writer;
+	// node numbers written so far, by canonical node
+	private final Map<Node, Integer> nodeNumbers = new IdentityHashMap<Node, Integer>();
+
+	public MacrocellWriter(Writer writer) {
+		this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+	}
+
+	public static void write(Game game, Path macrocellFile) throws IOException {
+		try (Writer fileWriter = Files.newBufferedWriter(macrocellFile, StandardCharsets.US_ASCII)) {
+			new MacrocellWriter(fileWriter).write(game);
+		}
+	}
+
+	public void write(Game game) throws IOException {
+
+		Node root = game instanceof HashLifeGame ? ((HashLifeGame)game).getRoot() : buildTree(game);
+
+		writer.write(MacrocellReader.HEADER + " (gameoflife)\n");
+		writer.write("#R " + game.getRule() + "\n");
+		if (game.getGeneration() != 0)
+			writer.write("#G " + game.getGeneration() + "\n");
+
+		nodeNumbers.clear();
+		writeNode(root);
+		writer.flush();
+	}
+
+	private static Node buildTree(Game game) {
+
+		HashLifeGame tree = new HashLifeGame();
+		List<Cell> liveCells = game.getLiveCells();
+		long[] batch = new long[BATCH_CELLS];
+		for (int start = 0; start < liveCells.size(); start += batch.length) {
+			int batchCells = Math.min(batch.length, liveCells.size() - start);
+			for (int i = 0; i < batchCells; i++) {
+				Cell cell = liveCells.get(start + i);
+				batch[i] = Cell.pack(cell.getX(), cell.getY());
+			}
+			tree.bringCellsToLife(batch, 0, batchCells);
+		}
+		return tree.getRoot();
+	}
+
+	/**
+	 * Writes the node's line after its children's, unless it's empty or
+	 * already written
+	 *
+	 * @return the node's number, 0 when empty
+	 */
+	private int writeNode(Node node) throws IOException {
+
+		if (node.getPopulation() == 0)
+			return 0;
+		Integer nodeNumber = nodeNumbers.get(node);
+		if (nodeNumber != null)
+			return nodeNumber;
+
+		if (node.getLevel() == LEAF_LEVEL)
+			writeLeaf(node);
+		else {
+			int nw = writeNode(node.getNorthWest()), ne = writeNode(node.getNorthEast()),
+				sw = writeNode(node.getSouthWest()), se = writeNode(node.getSouthEast());
+			writer.write(node.getLevel() + " " + nw + " " + ne + " " + sw + " " + se + "\n");
+		}
+
+		nodeNumber = nodeNumbers.size() + 1;
+		nodeNumbers.put(node, nodeNumber);
+		return nodeNumber;
+	}
+
+	/**
+	 * 8x8 node as rows of '.' and '*' ending in '$', leaving out trailing
+	 * dead cells and rows
+	 */
+	private void writeLeaf(Node node) throws IOException {
+
+		boolean[][] cells = new boolean[LEAF_SIZE][LEAF_SIZE];
+		addCells(cells, node, 0, 0);
+
+		StringBuilder leaf = new StringBuilder();
+		int pendingRows = 0;
+		for (boolean[] row : cells) {
+			int rowLength = LEAF_SIZE;
+			while (rowLength > 0 && !row[rowLength - 1])
+				rowLength--;
+			pendingRows++;
+			if (rowLength == 0)
+				continue;
+			for (; pendingRows > 1; pendingRows--)
+				leaf.append('$');
+			for (int x = 0; x < rowLength; x++)
+				leaf.append(row[x] ? '*' : '.');
+			leaf.append('$');
+			pendingRows = 0;
+		}
+		writer.write(leaf.append('\n').toString());
+	}
+
+	private static void addCells(boolean[][] cells, Node node, int x, int y) {
+
+		if (node.getPopulation() == 0)
+			return;
+		if (node.getLevel() == 0) {
+			cells[y][x] = true;
+			return;
+		}
+
+		int half = 1 << (node.getLevel() - 1);
+		addCells(cells, node.getNorthWest(), x, y);
+		addCells(cells, node.getNorthEast(), x + half, y);
+		addCells(cells, node.getSouthWest(), x, y + half);
+		addCells(cells, node.getSouthEast(), x + half, y + half);
+	}
+}
@@ -0,0 +1,210 @@
+package com.uprr.game.gameoflife.io;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Rule;
+
+/**
+ * Streaming reader for Run Length Encoded (RLE) Life patterns:
+ *
+ * <pre>
+ * #N Glider
+ * x = 3, y = 3, rule = B3/S23
+ * bo$2bo$3o!
+ * </pre>
+ *
+ * The pattern body is decoded a character at a time and cells go into the
+ * game in fixed-size packed batches (Game.bringCellsToLife), so memory use
+ * doesn't grow with the pattern.  A rule in the header is applied to the game
+ * when it's one Rule supports; otherwise the game's rule is left alone and
+ * getRule() returns null.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class RleReader {
+
+	private static final int BATCH_CELLS = 4096, BUFFER_CHARS = 8192;
+
+	private final BufferedReader reader;
+	private String name, ruleNotation;
+	private Rule rule;
+	private int width, height;
+
+	private final long[] batch = new long[BATCH_CELLS];
+	private int batchSize;
+
+	public RleReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader)reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * Reads the pattern file into the game with its top left corner at the origin
+	 */
+	public static RleReader read(Path rleFile, Game game) throws IOException {
+		try (Reader fileReader = Files.newBufferedReader(rleFile, StandardCharsets.US_ASCII)) {
+			RleReader rleReader = new RleReader(fileReader);
+			rleReader.read(game, 0, 0);
+			return rleReader;
+		}
+	}
+
+	/**
+	 * Brings the pattern's cells to life in the game (on top of any already
+	 * alive), with its top left corner at (left, top)
+	 */
+	public void read(Game game, int left, int top) throws IOException {
+
+		readHeader();
+		if (rule != null)
+			game.setRule(rule);
+
+		char[] buffer = new char[BUFFER_CHARS];
+		long x = left, y = top, runCount = 0;
+
+		for (int charCount; (charCount = reader.read(buffer)) != -1; ) {
+			for (int i = 0; i < charCount; i++) {
+
+				char tag = buffer[i];
+				if (tag >= '0' && tag <= '9') {
+					runCount = runCount*10 + (tag - '0');
+					if (runCount > Integer.MAX_VALUE)
+						throw new IOException("Run count too large in RLE pattern");
+					continue;
+				}
+				if (tag == ' ' || tag == '\t' || tag == '\r' || tag == '\n')
+					continue;	// lines can break between a run count and its tag
+
+				long run = runCount == 0 ? 1 : runCount;
+				runCount = 0;
+
+				switch (tag) {
+				case 'b':
+				case '.':
+					x += run;
+					break;
+				case 'o':
+				case 'A':
+					for (long cell = 0; cell < run; cell++)
+						addCell(game, x++, y);
+					break;
+				case '$':
+					y += run;
+					x = left;
+					break;
+				case '!':
+					flush(game);
+					return;
+				default:
+					throw new IOException("Unsupported RLE cell state '"+tag+"' at row "+(y - top));
+				}
+			}
+		}
+
+		throw new IOException("RLE pattern ended without '!'");
+	}
+
+	private void readHeader() throws IOException {
+
+		for (String line; (line = reader.readLine()) != null; ) {
+
+			line = line.trim();
+			if (line.startsWith("#N"))
+				name = line.substring(2).trim();
+			if (line.isEmpty() || line.startsWith("#"))
+				continue;
+
+			// only split at commas starting another setting, since rules can hold commas
+			for (String setting : line.split(",(?=\\s*[A-Za-z]+\\s*=)")) {
+				String[] keyValue = setting.split("=", 2);
+				if (keyValue.length != 2)
+					throw new IOException("RLE header must be of the form x = 3, y = 3: "+line);
+				String key = keyValue[0].trim(), value = keyValue[1].trim();
+				if (key.equals("x"))
+					width = parseSize(value, line);
+				else if (key.equals("y"))
+					height = parseSize(value, line);
+				else if (key.equals("rule"))
+					setRule(value);
+			}
+			return;
+		}
+
+		throw new IOException("RLE pattern has no header line");
+	}
+
+	private static int parseSize(String value, String line) throws IOException {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException nfe) {
+			throw new IOException("RLE header has a bad size: "+line, nfe);
+		}
+	}
+
+	private void setRule(String notation) {
+		ruleNotation = notation;
+		try {
+			rule = Rule.parse(notation);
+		} catch (IllegalArgumentException iae) {
+			rule = null;	// e.g. B0, non-totalistic or bounded-grid rules
+		}
+	}
+
+	private void addCell(Game game, long x, long y) throws IOException {
+
+		if (x > Integer.MAX_VALUE || y > Integer.MAX_VALUE)
+			throw new IOException("RLE pattern runs past the edge of the plane");
+
+		batch[batchSize++] = Cell.pack((int)x, (int)y);
+		if (batchSize == batch.length)
+			flush(game);
+	}
+
+	private void flush(Game game) {
+		game.bringCellsToLife(batch, 0, batchSize);
+		batchSize = 0;
+	}
+
+	/**
+	 * From the #N line, or null
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Pattern width from the header
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Pattern height from the header
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Rule as written in the header, or null if there was none
+	 */
+	public String getRuleNotation() {
+		return ruleNotation;
+	}
+
+	/**
+	 * Rule applied to the game, or null if the header had none or had one
+	 * Rule doesn't support
+	 */
+	public Rule getRule() {
+		return rule;
+	}
+}
@@ -0,0 +1,105 @@
+package com.uprr.game.gameoflife.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+
+/**
+ * Writes a game's live cells as a Run Length Encoded (RLE) pattern, with the
+ * bounding box and rule in the header and lines of at most 70 characters.
+ * Cells are sorted into row order as packed longs, so the only per-cell
+ * memory is one long each.
+ *
+ * @author slenagh@up.com
+ *
+ */
+public class RleWriter {
+
+	public static final int MAX_LINE_LENGTH = 70;
+
+	private final Writer writer;
+	private int lineLength;
+
+	public RleWriter(Writer writer) {
+		this.writer = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+	}
+
+	public static void write(Game game, Path rleFile) throws IOException {
+		try (Writer fileWriter = Files.newBufferedWriter(rleFile, StandardCharsets.US_ASCII)) {
+			new RleWriter(fileWriter).write(game, (String)null);
+		}
+	}
+
+	/**
+	 * @param name written as a #N line, unless null
+	 */
+	public void write(Game game, String name) throws IOException {
+
+		List<Cell> liveCells = game.getLiveCells();
+
+		// row-major sort key: signed y, then x offset to sort as unsigned
+		long[] sortedCells = new long[liveCells.size()];
+		int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+		for (int i = 0; i < sortedCells.length; i++) {
+			Cell cell = liveCells.get(i);
+			sortedCells[i] = ((long)cell.getY() << 32) | ((cell.getX() ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+			minX = Math.min(minX, cell.getX());
+			maxX = Math.max(maxX, cell.getX());
+			minY = Math.min(minY, cell.getY());
+			maxY = Math.max(maxY, cell.getY());
+		}
+		Arrays.sort(sortedCells);
+
+		if (name != null)
+			writer.write("#N " + name + "\n");
+		long width = sortedCells.length == 0 ? 0 : (long)maxX - minX + 1;
+		long height = sortedCells.length == 0 ? 0 : (long)maxY - minY + 1;
+		writer.write("x = " + width + ", y = " + height + ", rule = " + game.getRule() + "\n");
+
+		long row = minY, column = minX;
+		int liveRun = 0;
+		for (long sortedCell : sortedCells) {
+
+			int x = (int)sortedCell ^ Integer.MIN_VALUE, y = (int)(sortedCell >> 32);
+
+			if (y != row || x != column) {
+				writeRun(liveRun, 'o');
+				liveRun = 0;
+			}
+			if (y != row) {
+				writeRun(y - row, '$');
+				row = y;
+				column = minX;
+			}
+			writeRun(x - column, 'b');
+			liveRun++;
+			column = x + 1;
+		}
+		writeRun(liveRun, 'o');
+		writeRun(1, '!');
+		writer.write('\n');
+		writer.flush();
+	}
+
+	private void writeRun(long run, char tag) throws IOException {
+
+		if (run == 0)
+			return;
+
+		String runToken = run == 1 ? Character.toString(tag) : Long.toString(run) + tag;
+		if (lineLength + runToken.length() > MAX_LINE_LENGTH) {
+			writer.write('\n');
+			lineLength = 0;
+		}
+		writer.write(runToken);
+		lineLength += runToken.length();
+	}
+}
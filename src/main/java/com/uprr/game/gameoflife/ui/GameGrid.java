@@ -7,9 +7,14 @@ import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.List;
 
 import com.uprr.game.gameoflife.Cell;
 import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.TickPhaseEvent;
 import com.uprr.game.gameoflife.ui.GameGridNavigator.MoveType;
 
 /**
@@ -24,27 +29,67 @@ class GameGrid extends Canvas
 	
 	private static final long serialVersionUID = GameGrid.class.getCanonicalName().hashCode();
 	
-	private Cell originCell = new Cell(0, 0);
+	/**
+	 * How frames are drawn
+	 */
+	public enum RenderMode {
+		/** a Graphics call per gridline and per cell, changed cells only on ticks */
+		GRAPHICS,
+		/** cell pixels written straight into an int raster, blitted once per frame */
+		RASTER
+	}
+	
+	/**
+	 * Visible live cells of one generation, published by the simulation thread
+	 * so frames can be drawn without waiting on the game's lock
+	 */
+	private static class GenerationView {
+		final Cell originCell;
+		final int gridWidth, gridHeight;
+		final List<Cell> liveCells;
+		
+		GenerationView(Cell originCell, int gridWidth, int gridHeight, List<Cell> liveCells) {
+			this.originCell = originCell;
+			this.gridWidth = gridWidth;
+			this.gridHeight = gridHeight;
+			this.liveCells = liveCells;
+		}
+	}
+	
+	private volatile Cell originCell = new Cell(0, 0);
 	
 	private Game game;
 	public int cellSize, gridWidth, gridHeight;
 	private Image backBuffer;
 	private Graphics backBufferGraphics;
 	
+	private RenderMode renderMode = RenderMode.GRAPHICS;
+	private BufferedImage frame;
+	// frame's pixels, and an empty frame (gridlines only) copied in to start each one
+	private int[] framePixels, gridlinePixels;
+	private int gridlineRgb, backgroundRgb;
+	
+	// latest generation published by advance(), and whether a frame has asked for a newer one
+	private volatile GenerationView publishedView;
+	private volatile boolean isViewWanted = true;
+	
 	private class CellClickHandler extends MouseAdapter {
 		public void mousePressed(MouseEvent e) {
 			
 			Cell clickedCell = getCellForCoordinate(e.getX(), e.getY());
 			
-			if (!game.isCellAlive(clickedCell)) {
-				game.bringCellToLife(clickedCell);
-				// single cell changes painted directly (no back-buffered repaint)
-				fillCell(clickedCell);	
-			} else {
-				game.killCell(clickedCell);
-				// single cell changes painted directly (no back-buffered repaint)
-				clearCell(clickedCell);
-			}	
+			synchronized (game) {	// the game may be ticking on its own thread
+				if (!game.isCellAlive(clickedCell)) {
+					game.bringCellToLife(clickedCell);
+					// single cell changes painted directly (no back-buffered repaint)
+					fillCell(clickedCell);	
+				} else {
+					game.killCell(clickedCell);
+					// single cell changes painted directly (no back-buffered repaint)
+					clearCell(clickedCell);
+				}	
+				discardView();
+			}
 			
 		}		
 	}
@@ -62,6 +107,10 @@ class GameGrid extends Canvas
 		
 	}
 	
+	public Game getGame() {
+		return game;
+	}
+	
 	public int getGridWidth() {
 		return this.gridWidth;
 	}
@@ -70,6 +119,15 @@ class GameGrid extends Canvas
 		return this.gridHeight;
 	}
 	
+	public RenderMode getRenderMode() {
+		return renderMode;
+	}
+	
+	public void setRenderMode(RenderMode renderMode) {
+		this.renderMode = renderMode;
+		repaint();
+	}
+	
 	public Dimension getPreferredSize() {
 		return new Dimension(gridWidth*cellSize, gridHeight*cellSize);
 	}
@@ -81,6 +139,13 @@ class GameGrid extends Canvas
 	
 	public void update(Graphics g) {
 
+		if (renderMode == RenderMode.RASTER) {
+			int cellsDrawn = renderFrame();
+			if (cellsDrawn >= 0)
+				g.drawImage(frame, 0, 0, this);
+			return;
+		}
+		
 		if (backBufferGraphics == null)
 			setupBackBuffer();
 		else
@@ -109,18 +174,155 @@ class GameGrid extends Canvas
 	
 	public void reset() {
 		game.reset();
+		discardView();
 		setOriginCell(new Cell(0, 0));
 		repaint();			
 	}
 	
 	public void doTick() {
 		
-		game.tick();
+		synchronized (game) {
+			game.tick();
+			discardView();
+			
+			TickPhaseEvent drawEvent = new TickPhaseEvent();
+			drawEvent.begin();
+			if (renderMode == RenderMode.RASTER) {
+				// Whole frame rebuilt in memory and blitted in one call
+				int cellsDrawn = renderFrame();
+				if (cellsDrawn >= 0)
+					blitFrame();
+				drawEvent.commit(TickPhaseEvent.DRAW, game.getGeneration(), game.getPopulation(), Math.max(cellsDrawn, 0));
+				return;
+			}
+			// Save memory/cycles by just redrawing changed cells (if they are visible)
+			//repaint();
+			int cellsDrawn = clearDeadCells(getGraphics());
+			cellsDrawn += drawLiveCells(getGraphics());
+			drawEvent.commit(TickPhaseEvent.DRAW, game.getGeneration(), game.getPopulation(), cellsDrawn);
+		}
+	}
+	
+	/**
+	 * Ticks the game without drawing anything, for simulation threads that
+	 * leave drawing to a separate render loop.  When a frame has been drawn
+	 * since the last one, the new generation's visible cells are published
+	 * for repaint() to draw without the game's lock, so a frame never waits
+	 * on a tick (and a fast simulation only queries the game once a frame).
+	 */
+	public void advance() {
+		synchronized (game) {
+			game.tick();
+			if (isViewWanted) {
+				isViewWanted = false;
+				Cell origin = originCell;
+				int width = getGridWidth(), height = getGridHeight();
+				publishedView = new GenerationView(origin, width, height,
+						game.getLiveCells(origin.getX(), origin.getY(), width, height));
+			}
+		}
+	}
+	
+	/**
+	 * Drops the generation published by advance(), for when the game is
+	 * changed some other way (edits, loads, single ticks, stopping), so
+	 * frames read the game itself until advance() publishes again
+	 */
+	public void discardView() {
+		publishedView = null;
+	}
+	
+	/**
+	 * Live cells in view: from the generation advance() last published if it
+	 * covers the view, without taking the game's lock, else from the game
+	 */
+	private List<Cell> getVisibleLiveCells() {
 		
-		// Save memory/cycles by just redrawing changed cells (if they are visible)
-		//repaint();
-		clearDeadCells(getGraphics());
-		drawLiveCells(getGraphics());
+		Cell origin = originCell;
+		int width = getGridWidth(), height = getGridHeight();
+		GenerationView view = publishedView;
+		isViewWanted = true;
+		if (view != null && view.originCell.equals(origin) && view.gridWidth == width && view.gridHeight == height)
+			return view.liveCells;
+		synchronized (game) {
+			return game.getLiveCells(origin.getX(), origin.getY(), width, height);
+		}
+	}
+	
+	/**
+	 * Draws gridlines and visible live cells into the frame raster, without
+	 * touching the screen
+	 * 
+	 * @return the number of live cells drawn, or -1 if there's nothing to draw
+	 * 	into yet (not laid out)
+	 */
+	int renderFrame() {
+		
+		int width = getWidth(), height = getHeight();
+		if (width <= 0 || height <= 0)
+			return -1;
+		
+		if (frame == null || frame.getWidth() != width || frame.getHeight() != height) {
+			frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			framePixels = ((DataBufferInt)frame.getRaster().getDataBuffer()).getData();
+			gridlinePixels = null;
+		}
+		int foregroundRgb = colorRgb(getForeground(), Color.BLACK);
+		if (gridlinePixels == null || gridlineRgb != foregroundRgb
+				|| backgroundRgb != colorRgb(getBackground(), Color.WHITE))
+			drawGridlines(width, height);
+		
+		System.arraycopy(gridlinePixels, 0, framePixels, 0, framePixels.length);
+		List<Cell> visibleCells = getVisibleLiveCells();
+		for (Cell liveCell : visibleCells)
+			fillCellPixels(liveCell, foregroundRgb);
+		return visibleCells.size();
+	}
+	
+	private static int colorRgb(Color color, Color defaultColor) {
+		return (color != null ? color : defaultColor).getRGB();
+	}
+	
+	private void drawGridlines(int width, int height) {
+		
+		gridlineRgb = colorRgb(getForeground(), Color.BLACK);
+		backgroundRgb = colorRgb(getBackground(), Color.WHITE);
+		gridlinePixels = new int[width*height];
+		Arrays.fill(gridlinePixels, backgroundRgb);
+		
+		int gridWidth = 0, gridHeight = 0;
+		for (int y = 0; y < height; y = y + cellSize, gridHeight++)
+			Arrays.fill(gridlinePixels, y*width, (y + 1)*width, gridlineRgb);
+		for (int x = 0; x < width; x = x + cellSize, gridWidth++)
+			for (int y = 0; y < height; y++)
+				gridlinePixels[y*width + x] = gridlineRgb;
+		
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+	}
+	
+	private void fillCellPixels(Cell cell, int rgb) {
+		
+		int width = frame.getWidth(), height = frame.getHeight();
+		int left = (cell.getX()-originCell.getX())*cellSize, top = (cell.getY()-originCell.getY())*cellSize;
+		int right = Math.min(left + cellSize, width), bottom = Math.min(top + cellSize, height);
+		for (int y = Math.max(top, 0); y < bottom; y++)
+			Arrays.fill(framePixels, y*width + Math.max(left, 0), y*width + right, rgb);
+	}
+	
+	private void blitFrame() {
+		Graphics g = getGraphics();
+		if (g == null)
+			return;	// not showing
+		g.drawImage(frame, 0, 0, this);
+		g.dispose();
+	}
+	
+	/**
+	 * Last frame drawn in raster mode, or null
+	 */
+	BufferedImage getFrame() {
+		return frame;
 	}
 
 	private void drawGridlines(Graphics g) {
@@ -142,16 +344,24 @@ class GameGrid extends Canvas
 				&& cell.getY() < (originCell.getY()+getGridHeight());
 	}
 	
-	private void drawLiveCells(Graphics g) {
-		for (Cell liveCell : game.getLiveCells())
-			if (isCellVisible(liveCell))
-				fillCell(liveCell, g);	
+	/**
+	 * @return the number of cells drawn
+	 */
+	private int drawLiveCells(Graphics g) {
+		List<Cell> visibleCells = getVisibleLiveCells();
+		for (Cell liveCell : visibleCells)
+			fillCell(liveCell, g);	
+		return visibleCells.size();
 	}
 	
-	private void clearDeadCells(Graphics g) {
-		for (Cell killedCell : game.getKilledCells())
-			if (isCellVisible(killedCell))
-				clearCell(killedCell, g);	
+	/**
+	 * @return the number of cells cleared
+	 */
+	private int clearDeadCells(Graphics g) {
+		List<Cell> visibleCells = game.getKilledCells(originCell.getX(), originCell.getY(), getGridWidth(), getGridHeight());
+		for (Cell killedCell : visibleCells)
+			clearCell(killedCell, g);	
+		return visibleCells.size();
 	}
 	
 
@@ -2,6 +2,7 @@ package com.uprr.game.gameoflife.ui;
 
 import java.awt.BorderLayout;
 import java.awt.Button;
+import java.awt.EventQueue;
 import java.awt.Frame;
 import java.awt.Label;
 import java.awt.Panel;
@@ -16,9 +17,16 @@ import java.awt.event.ComponentListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.io.MacrocellReader;
+import com.uprr.game.gameoflife.io.RleReader;
 
 public class GameOfLife extends Applet
 	implements ActionListener, Runnable
@@ -30,16 +38,22 @@ public class GameOfLife extends Applet
 		DEFAULT_GRID_HEIGHT = 20,
 		DEFAULT_CELL_SIZE = 10;
 	public final static int DEFAULT_TICK_DELAY = 100;
+	public static final int DEFAULT_FRAME_RATE = 60;
+	public static final String DEFAULT_SNAPSHOT_FILE = "gameoflife.snapshot";
 	
-	private boolean isRunning;
+	private volatile boolean isRunning;
 	private int tickDelayMilliseconds = DEFAULT_TICK_DELAY;
-	private long generationCount;
+	private volatile int frameRate = DEFAULT_FRAME_RATE;
+	// ticked by the simulation thread while running, and the event thread otherwise
+	private final AtomicLong generationCount = new AtomicLong();
 	private long startGenCount;
 	private Date startTime, endTime;	
+	private Path snapshotFile = Paths.get(DEFAULT_SNAPSHOT_FILE);
+	private Clock clock = Clock.SYSTEM;
 	
-	private Thread gameRunner;
+	private Thread gameRunner, frameRenderer;
 	private GameGrid gameGrid;
-	private Button tickButton, resetButton, runStopButton;
+	private Button tickButton, resetButton, runStopButton, saveButton;
 	private GameGridNavigator navigatorControl;
 	private Label generationCounterLabel;
 	private TextField delayField;
@@ -50,13 +64,80 @@ public class GameOfLife extends Applet
 			gameGrid.redrawGrid();
 		}
 	}
+	
+	/**
+	 * Time for the render loop to pace frames by
+	 */
+	interface Clock {
+		
+		Clock SYSTEM = new Clock() {
+			public long currentTimeMillis() {
+				return System.currentTimeMillis();
+			}
+			
+			public void sleep(long millis) throws InterruptedException {
+				Thread.sleep(millis);
+			}
+		};
+		
+		long currentTimeMillis();
+		
+		void sleep(long millis) throws InterruptedException;
+	}
+	
+	/**
+	 * Render loop for while the game runs: at most frameRate times a second,
+	 * repaints the grid and generation counter if a generation has finished
+	 * since the last frame, skipping any generations in between
+	 */
+	class FrameRenderer implements Runnable {
+		
+		private long renderedGenerationCount = -1;
+		
+		public void run() {
+			while (isRunning)
+				renderFrame();
+		}
+		
+		/**
+		 * Shows the latest generation if it's new, then sleeps out the rest of
+		 * the frame
+		 */
+		void renderFrame() {
+			long frameStartMillis = clock.currentTimeMillis();
+			if (generationCount.get() != renderedGenerationCount) {
+				renderedGenerationCount = generationCount.get();
+				showGeneration();
+			}
+			long frameRemainingMillis = 1000/frameRate - (clock.currentTimeMillis() - frameStartMillis);
+			if (frameRemainingMillis > 0)
+				try {
+					clock.sleep(frameRemainingMillis);
+				} catch (InterruptedException ie) {
+				}
+		}
+	}
 
+	/**
+	 * @param args optional RLE (.rle) or Macrocell (.mc) pattern to start from, or snapshot file,
+	 * 	loaded if it exists and used by Save
+	 */
 	public static void main(String[] args) {
 		
 		Frame gameFrame = new Frame("Game of Life - Standalone Mode");
 		final GameOfLife gameOfLife = new GameOfLife(new GameGrid(DEFAULT_GRID_WIDTH, DEFAULT_GRID_HEIGHT, 
 				DEFAULT_CELL_SIZE, new Game()));
 		
+		if (args.length > 0 && (args[0].toLowerCase().endsWith(".rle") || args[0].toLowerCase().endsWith(".mc")))
+			gameOfLife.importPattern(Paths.get(args[0]));
+		else if (args.length > 0) {
+			gameOfLife.setSnapshotFile(Paths.get(args[0]));
+			if (Files.exists(gameOfLife.getSnapshotFile()))
+				gameOfLife.loadSnapshot();
+		}
+		gameOfLife.gameGrid.getGame().getTickMetrics().register("GameOfLife");
+		gameOfLife.gameGrid.setRenderMode(GameGrid.RenderMode.RASTER);	// scales to full-screen grids
+		
 		gameFrame.add(gameOfLife, BorderLayout.CENTER);
 		gameFrame.pack();
 		
@@ -92,11 +173,14 @@ public class GameOfLife extends Applet
 		delayField = new TextField("100", 4);
 		controlPanel.add(delayField);
 		controlPanel.add(new Label("Generation:"));
-		generationCounterLabel = new Label(generationCount+"     ");
+		generationCounterLabel = new Label(generationCount.get()+"     ");
 		controlPanel.add(generationCounterLabel);
 		runStopButton = new Button("Run");
 		controlPanel.add(runStopButton);
 		runStopButton.addActionListener(this);
+		saveButton = new Button("Save");
+		controlPanel.add(saveButton);
+		saveButton.addActionListener(this);
 		
 		navigatorControl = new GameGridNavigator();	// Needed to navigate infinite plane
 		navigatorControl.addNavigationListener(gameGrid);
@@ -120,6 +204,8 @@ public class GameOfLife extends Applet
 			} else {
 				startGameRunning();
 			}
+		} else if (event.getSource() == saveButton) {
+			saveSnapshot();
 		}
 		
 	}
@@ -128,15 +214,15 @@ public class GameOfLife extends Applet
 	protected void reset() {
 		if (isRunning)
 			stopGameRunning();
-		generationCount = 0;
-		generationCounterLabel.setText(Long.toString(generationCount));
+		generationCount.set(0);
+		generationCounterLabel.setText(Long.toString(generationCount.get()));
 		delayField.setText(Integer.toString(DEFAULT_TICK_DELAY));
 		gameGrid.reset();		
 	}
 	
 	protected void startGameRunning() {
 		
-		startGenCount = generationCount;
+		startGenCount = generationCount.get();
 		gameRunner = new Thread(this, "Game Runner");
 		boolean isValidDelay = true;
 		
@@ -155,6 +241,8 @@ public class GameOfLife extends Applet
 		runStopButton.setLabel("Stop");
 		startTime = new Date();
 		gameRunner.start();
+		frameRenderer = new Thread(new FrameRenderer(), "Game Renderer");
+		frameRenderer.start();
 		
 	}
 	
@@ -162,26 +250,42 @@ public class GameOfLife extends Applet
 		
 		isRunning = false;
 		gameRunner.interrupt();
+		frameRenderer.interrupt();
+		try {
+			// so the last generation is the one shown, and no frame is drawn after it
+			gameRunner.join();
+			frameRenderer.join();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+		}
+		gameGrid.discardView();
+		gameGrid.repaint();
+		generationCounterLabel.setText(Long.toString(generationCount.get()));
 		
 		endTime = new Date();
 		long timeDelay = Math.abs(endTime.getTime()	- startTime.getTime());				
 		runStopButton.setLabel("Run");
+		long generationsRun = generationCount.get() - startGenCount;
 		System.out.println(
 			String.format("Ran %d generations in %dms => %d gen/sec",
-					generationCount-startGenCount, timeDelay,
-					(int)((generationCount-startGenCount)/(timeDelay/1000.0))));		
+					generationsRun, timeDelay, (int)(generationsRun/(timeDelay/1000.0))));		
 	}
 	
 	protected void doTick() {
 		
 		gameGrid.doTick();
 		
-		generationCounterLabel.setText(Long.toString(++generationCount));
+		generationCounterLabel.setText(Long.toString(generationCount.incrementAndGet()));
 	}
 	
+	/**
+	 * Simulation loop for while the game runs, ticking as fast as the delay
+	 * allows; drawing is left to the FrameRenderer
+	 */
 	public void run() {
 		while (isRunning) {
-			doTick();
+			gameGrid.advance();
+			generationCount.incrementAndGet();
 			if (tickDelayMilliseconds > 0)
 				try {
 					Thread.sleep(tickDelayMilliseconds);
@@ -192,7 +296,87 @@ public class GameOfLife extends Applet
 	
 
 	
+	/**
+	 * Repaints the grid and generation counter on the event thread; repaints
+	 * already pending are merged
+	 */
+	private void showGeneration() {
+		gameGrid.repaint();
+		EventQueue.invokeLater(new Runnable() {
+			public void run() {
+				generationCounterLabel.setText(Long.toString(generationCount.get()));
+			}
+		});
+	}
+	
 	public long getGenerationCount() {
-		return generationCount;
+		return generationCount.get();
+	}
+	
+	public int getFrameRate() {
+		return frameRate;
+	}
+	
+	/**
+	 * @param frameRate most frames drawn a second while running
+	 */
+	public void setFrameRate(int frameRate) {
+		if (frameRate < 1 || frameRate > 1000)
+			throw new IllegalArgumentException("Frame rate must be from 1 to 1000: "+frameRate);
+		this.frameRate = frameRate;
+	}
+	
+	void setClock(Clock clock) {
+		this.clock = clock;
+	}
+	
+	public Path getSnapshotFile() {
+		return snapshotFile;
+	}
+	
+	public void setSnapshotFile(Path snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+	
+	protected void saveSnapshot() {
+		try {
+			gameGrid.getGame().save(snapshotFile);
+			System.out.println("Saved generation "+gameGrid.getGame().getGeneration()+" to "+snapshotFile);
+		} catch (IOException ioe) {
+			System.err.println("Couldn't save "+snapshotFile+": "+ioe.getMessage());
+		}
+	}
+	
+	/**
+	 * Adds an RLE pattern's cells to the game, top left corner at the origin,
+	 * or replaces the game with a Macrocell (.mc) pattern (and its generation)
+	 */
+	protected void importPattern(Path patternFile) {
+		try {
+			if (patternFile.toString().toLowerCase().endsWith(".mc")) {
+				MacrocellReader.read(patternFile, gameGrid.getGame());
+				generationCount.set(gameGrid.getGame().getGeneration());
+				generationCounterLabel.setText(Long.toString(generationCount.get()));
+			} else
+				RleReader.read(patternFile, gameGrid.getGame());
+			gameGrid.discardView();
+			gameGrid.repaint();
+		} catch (IOException ioe) {
+			System.err.println("Couldn't import "+patternFile+": "+ioe.getMessage());
+		}
+	}
+	
+	protected void loadSnapshot() {
+		if (isRunning)
+			stopGameRunning();
+		try {
+			gameGrid.getGame().load(snapshotFile);
+			generationCount.set(gameGrid.getGame().getGeneration());
+			generationCounterLabel.setText(Long.toString(generationCount.get()));
+			gameGrid.discardView();
+			gameGrid.repaint();
+		} catch (IOException ioe) {
+			System.err.println("Couldn't load "+snapshotFile+": "+ioe.getMessage());
+		}
 	}
 }
@@ -0,0 +1,198 @@
+package com.uprr.game.gameoflife;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class BitboardGameTest {
+
+	private static final int WIDTH = 128, HEIGHT = 64;
+
+	private BitboardGame game;
+
+	@Before
+	public void setUp() {
+		game = new BitboardGame(WIDTH, HEIGHT);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void create_WidthNotMultipleOf64ThrowsException() {
+		new BitboardGame(100, 10);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void create_ZeroHeightThrowsException() {
+		new BitboardGame(64, 0);
+	}
+
+	@Test
+	public void bringCellToLife_CoordinatesWrapAroundTorus() {
+		game.bringCellToLife(new Cell(-1, HEIGHT));
+		assertTrue(game.isCellAlive(new Cell(WIDTH-1, 0)));
+		assertEquals(1, game.getPopulation());
+		assertEquals(new Cell(WIDTH-1, 0), game.getLiveCells().get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bringCellToLife_AddToSameCoordThrowsException() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.bringCellToLife(new Cell(12+WIDTH, 34));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void killCell_DeadCellThrowsException() {
+		game.killCell(new Cell(23, 12));
+	}
+
+	@Test
+	public void getNeighborCountAndDeadCells_CountsAcrossWordAndTorusEdges() {
+		game.bringCellToLife(new Cell(63, 0));
+		game.bringCellToLife(new Cell(64, 0));
+		game.bringCellToLife(new Cell(63, HEIGHT-1));
+		Set<Cell> deadNeighbors = new HashSet<Cell>();
+		assertEquals(2, game.getNeighborCountAndDeadCells(new Cell(63, 0), deadNeighbors));
+		assertEquals("Dead neighbors", 6, deadNeighbors.size());
+		assertTrue(deadNeighbors.contains(new Cell(62, HEIGHT-1)));
+	}
+
+	@Test
+	public void tick_BlinkerAcrossWordBoundaryOscillates() {
+		game.bringCellToLife(new Cell(63, 10));
+		game.bringCellToLife(new Cell(64, 10));
+		game.bringCellToLife(new Cell(65, 10));
+
+		game.tick();
+
+		assertEquals("Population", 3, game.getPopulation());
+		assertTrue(game.isCellAlive(new Cell(64, 9)));
+		assertTrue(game.isCellAlive(new Cell(64, 11)));
+		assertEquals("Born", 2, game.getBornCells().size());
+		assertEquals("Killed", 2, game.getKilledCells().size());
+		assertTrue(game.getKilledCells().contains(new Cell(63, 10)));
+		assertTrue(game.getBornCells().contains(new Cell(64, 9)));
+	}
+
+	@Test
+	public void tick_GliderWrapsAroundTorus() {
+
+		Game torus = new BitboardGame(64, 64);
+		int[][] glider = { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} };
+		for (int[] cell : glider)
+			torus.bringCellToLife(new Cell(cell[0], cell[1]));
+		Set<Cell> initial = TestUtil.liveCellSet(torus);
+
+		// glider moves one cell diagonally every 4 generations
+		for (int generation = 0; generation < 64*4; generation++)
+			torus.tick();
+
+		assertEquals(initial, TestUtil.liveCellSet(torus));
+	}
+
+	@Test
+	public void tick_SoupAwayFromEdgesMatchesGame() {
+
+		Game referenceGame = new Game();
+		Game torus = new BitboardGame(256, 128);
+		for (Game game : new Game[] { referenceGame, torus })
+			for (Cell cell : seedSoup())
+				game.bringCellToLife(cell);
+
+		for (int generation = 1; generation <= 20; generation++) {
+			referenceGame.tick();
+			torus.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(torus));
+			assertEquals("Population "+generation, referenceGame.getPopulation(), torus.getPopulation());
+		}
+	}
+
+	private Set<Cell> seedSoup() {
+		Game soup = new Game();
+		TestUtil.seedRandomSoup(3, 30, 30, 0.4, soup);
+		Set<Cell> cells = new HashSet<Cell>();
+		for (Cell cell : soup.getLiveCells())
+			cells.add(new Cell(cell.getX()+100, cell.getY()+50));
+		return cells;
+	}
+
+	@Test
+	public void tick_RuleSwitchedMidRunMatchesGame() {
+
+		Game referenceGame = new Game();
+		game = new BitboardGame(256, 128);
+		for (Game seeded : new Game[] { referenceGame, game })
+			for (Cell cell : seedSoup())
+				seeded.bringCellToLife(cell);
+
+		for (int generation = 1; generation <= 20; generation++) {
+			if (generation == 8) {
+				referenceGame.setRule(Rule.HIGHLIFE);
+				game.setRule(Rule.HIGHLIFE);
+			}
+			game.tick();
+			referenceGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void tick_WideTorusMatchesScalarStepping() {
+
+		BitboardGame scalarGame = new BitboardGame(64*21, 40, Bitboards.SCALAR_ROW_STEPPER);
+		game = new BitboardGame(64*21, 40);
+		TestUtil.seedRandomSoup(53, 64*21, 40, 0.35, game, scalarGame);
+
+		for (int generation = 1; generation <= 40; generation++) {
+			if (generation == 20) {
+				game.setRule(Rule.HIGHLIFE);
+				scalarGame.setRule(Rule.HIGHLIFE);
+			}
+			game.tick();
+			scalarGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(scalarGame), TestUtil.liveCellSet(game));
+			assertEquals("Population "+generation, scalarGame.getPopulation(), game.getPopulation());
+		}
+	}
+
+	@Test
+	public void getBornCells_EditsAfterTickLeftOut() {
+		game.bringCellToLife(new Cell(4, 5));
+		game.bringCellToLife(new Cell(5, 5));
+		game.bringCellToLife(new Cell(6, 5));
+		game.tick();
+		game.killCell(new Cell(5, 4));	// born by the tick
+		game.bringCellToLife(new Cell(4, 5));	// killed by the tick
+		game.bringCellToLife(new Cell(20, 20));
+
+		assertEquals(new HashSet<Cell>(Arrays.asList(new Cell(5, 4), new Cell(5, 6))), new HashSet<Cell>(game.getBornCells()));
+		assertEquals(new HashSet<Cell>(Arrays.asList(new Cell(4, 5), new Cell(6, 5))), new HashSet<Cell>(game.getKilledCells()));
+		assertEquals("Edits kept", new HashSet<Cell>(Arrays.asList(new Cell(4, 5), new Cell(5, 5), new Cell(5, 6), new Cell(20, 20))),
+				TestUtil.liveCellSet(game));
+	}
+
+	@Test
+	public void reset_CellCountBackToZero() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.tick();
+		game.reset();
+		assertEquals(0, game.getPopulation());
+		assertEquals(0, game.getLiveCells().size());
+		assertEquals(0, game.getKilledCells().size());
+	}
+
+	@Test
+	public void getLiveCellsInRegion_ClippedToTorus() {
+		TestUtil.seedRandomSoup(3, WIDTH, HEIGHT, 0.3, game);
+		game.tick();
+		assertEquals("Across a word boundary",
+				TestUtil.cellsIn(game.getLiveCells(), 60, 10, 9, 20), new HashSet<Cell>(game.getLiveCells(60, 10, 9, 20)));
+		assertEquals("Past the edges",
+				TestUtil.cellsIn(game.getLiveCells(), -10, -10, WIDTH+20, 30), new HashSet<Cell>(game.getLiveCells(-10, -10, WIDTH+20, 30)));
+		assertEquals("Outside the torus", 0, game.getLiveCells(WIDTH+64, 0, 64, HEIGHT).size());
+	}
+}
@@ -28,11 +28,19 @@ public class CellTest {
 	}
 	
 	@Test
-	public void coordinates_AreSettable() {
-		cell.setX(-32);
-		cell.setY(456);
-		assertEquals("X", -32, cell.getX());
-		assertEquals("Y", 456, cell.getY());
+	public void valueOf_HotCoordsAreShared() {
+		assertSame("origin", Cell.valueOf(0, 0), Cell.valueOf(0, 0));
+		assertSame("near origin", Cell.valueOf(-32, 100), Cell.valueOf(-32, 100));
+		assertEquals("coords", new Cell(-32, 100), Cell.valueOf(-32, 100));
+	}
+	
+	@Test
+	public void valueOf_ColdCoordsAreEqualButNotShared() {
+		Cell farCell = Cell.valueOf(-32, 456);
+		assertEquals("X", -32, farCell.getX());
+		assertEquals("Y", 456, farCell.getY());
+		assertEquals(farCell, Cell.valueOf(-32, 456));
+		assertNotSame(farCell, Cell.valueOf(-32, 456));
 	}
 	
 	@Test
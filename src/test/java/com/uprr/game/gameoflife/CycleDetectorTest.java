@@ -0,0 +1,170 @@
+package com.uprr.game.gameoflife;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class CycleDetectorTest {
+
+	private Game game;
+	private CycleDetector cycleDetector;
+
+	@Before
+	public void setUp() {
+		game = new Game();
+		cycleDetector = new CycleDetector();
+	}
+
+	private void bringCellsToLife(Game game, int[][] cells) {
+		for (int[] cell : cells)
+			game.bringCellToLife(new Cell(cell[0], cell[1]));
+	}
+
+	@Test
+	public void observe_BlinkerHasPeriodTwoFromStart() {
+
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {2, 0} });
+
+		assertFalse(cycleDetector.observe(game));
+		game.tick();
+		assertFalse(cycleDetector.observe(game));
+		game.tick();
+		assertTrue(cycleDetector.observe(game));
+		assertEquals(2, cycleDetector.getPeriod());
+		assertEquals(0, cycleDetector.getOnset());
+
+		game.tick();
+		game.tick();
+		assertTrue(cycleDetector.observe(game));
+		assertEquals(0, cycleDetector.getOnset());
+	}
+
+	@Test
+	public void observe_BlockIsStillLife() {
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {0, 1}, {1, 1} });
+		cycleDetector.observe(game);
+		game.tick();
+		assertTrue(cycleDetector.observe(game));
+		assertEquals(1, cycleDetector.getPeriod());
+	}
+
+	@Test
+	public void observe_GliderNeverRepeats() {
+
+		bringCellsToLife(game, new int[][] { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} });
+		for (int tick = 0; tick < 100; tick++) {
+			assertFalse("Generation "+game.getGeneration(), cycleDetector.observe(game));
+			game.tick();
+		}
+	}
+
+	@Test
+	public void observe_IncrementalHashMatchesFullHash() {
+
+		TestUtil.seedRandomSoup(23, 30, 30, 0.4, game);
+		for (int tick = 0; tick < 30; tick++) {
+			cycleDetector.observe(game);
+			game.tick();
+		}
+		cycleDetector.observe(game);
+
+		CycleDetector freshDetector = new CycleDetector();
+		freshDetector.observe(game);
+		assertEquals(freshDetector.getHash(), cycleDetector.getHash());
+	}
+
+	@Test
+	public void observe_SoupSettlesIntoProvenCycle() {
+
+		TestUtil.seedRandomSoup(3, 16, 16, 0.4, game);
+		while (!cycleDetector.observe(game) && game.getGeneration() < 5000)
+			game.tick();
+		assertTrue("Soup settled", cycleDetector.getPeriod() > 0);
+
+		Game replay = new Game();
+		TestUtil.seedRandomSoup(3, 16, 16, 0.4, replay);
+		while (replay.getGeneration() < cycleDetector.getOnset())
+			replay.tick();
+		assertEquals(110, cycleDetector.getOnset());
+		assertEquals(2, cycleDetector.getPeriod());
+		assertEquals(TestUtil.liveCellSet(game), TestUtil.liveCellSet(replay));
+	}
+
+	@Test
+	public void observe_EditBetweenTicksRehashes() {
+
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {0, 1}, {1, 1} });
+		cycleDetector.observe(game);
+		game.bringCellToLife(new Cell(10, 10));
+		assertFalse("Same generation, different cells", cycleDetector.observe(game));
+		game.tick();
+		assertTrue("Lone cell died, leaving the first generation's block", cycleDetector.observe(game));
+		assertEquals(1, cycleDetector.getPeriod());
+	}
+
+	@Test
+	public void observe_EditKeepingPopulationRehashes() {
+
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {0, 1}, {1, 1} });
+		cycleDetector.observe(game);
+		game.tick();
+		game.killCell(new Cell(0, 0));
+		game.bringCellToLife(new Cell(10, 10));
+		assertFalse("Same population, different cells", cycleDetector.observe(game));
+
+		CycleDetector freshDetector = new CycleDetector();
+		freshDetector.observe(game);
+		assertEquals(freshDetector.getHash(), cycleDetector.getHash());
+	}
+
+	@Test
+	public void observe_RuleChangeForgetsHistory() {
+
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {0, 1}, {1, 1} });
+		cycleDetector.observe(game);
+		game.setRule(Rule.HIGHLIFE);
+		game.tick();
+		assertFalse(cycleDetector.observe(game));
+	}
+
+	@Test
+	public void observe_SkippedGenerationsRehashed() {
+
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {2, 0} });
+		cycleDetector.observe(game);
+		game.advanceByPowerOfTwo(0);
+		cycleDetector.observe(game);
+		game.advanceByPowerOfTwo(2);
+		assertTrue(cycleDetector.observe(game));
+		assertEquals(4, cycleDetector.getPeriod());
+	}
+
+	@Test
+	public void observe_HashLifeJumps() {
+
+		HashLifeGame hashLifeGame = new HashLifeGame();
+		bringCellsToLife(hashLifeGame, new int[][] { {0, 0}, {1, 0}, {2, 0} });
+		cycleDetector.observe(hashLifeGame);
+		hashLifeGame.advanceByPowerOfTwo(3);
+		assertTrue(cycleDetector.observe(hashLifeGame));
+		assertEquals(8, cycleDetector.getPeriod());
+	}
+
+	@Test
+	public void observe_PeriodLongerThanHistoryMissed() {
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {2, 0} });
+		CycleDetector shortDetector = new CycleDetector(1);
+		for (int tick = 0; tick < 5; tick++) {
+			assertFalse(shortDetector.observe(game));
+			game.tick();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_EmptyHistoryThrowsException() {
+		new CycleDetector(0);
+	}
+}
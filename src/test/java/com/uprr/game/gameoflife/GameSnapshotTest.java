@@ -0,0 +1,107 @@
+package com.uprr.game.gameoflife;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class GameSnapshotTest {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private Path snapshotFile;
+	private Game game;
+
+	@Before
+	public void setUp() throws IOException {
+		snapshotFile = tempFolder.newFile("universe.snapshot").toPath();
+		game = new Game();
+	}
+
+	@Test
+	public void save_LoadRestoresCellsGenerationAndRule() throws IOException {
+
+		TestUtil.seedRandomSoup(61, 30, 30, 0.4, game);
+		game.bringCellToLife(new Cell(-70000, Integer.MIN_VALUE));
+		game.setRule(com.uprr.game.gameoflife.Rule.HIGHLIFE);
+		game.tick();
+		game.tick();
+		game.save(snapshotFile);
+
+		Game loadedGame = new Game();
+		loadedGame.bringCellToLife(new Cell(500, 500));
+		loadedGame.load(snapshotFile);
+
+		assertEquals("Cells", TestUtil.liveCellSet(game), TestUtil.liveCellSet(loadedGame));
+		assertEquals("Generation", 2, loadedGame.getGeneration());
+		assertEquals("Rule", com.uprr.game.gameoflife.Rule.HIGHLIFE, loadedGame.getRule());
+		assertEquals("File size", GameSnapshot.HEADER_BYTES + game.getPopulation()*Long.BYTES, Files.size(snapshotFile));
+	}
+
+	@Test
+	public void load_IntoOtherEnginesMatchesGame() throws IOException {
+
+		TestUtil.seedRandomSoup(67, 40, 40, 0.35, game);
+		game.save(snapshotFile);
+		game.tick();
+
+		for (Game engine : new Game[] { new PackedGame(), new TiledGame(), new HashLifeGame() }) {
+			engine.load(snapshotFile);
+			engine.tick();
+			assertEquals(engine.getClass().getSimpleName(), TestUtil.liveCellSet(game), TestUtil.liveCellSet(engine));
+			assertEquals(engine.getClass().getSimpleName()+" generation", 1, engine.getGeneration());
+		}
+	}
+
+	@Test
+	public void save_EmptyGameLoadsEmpty() throws IOException {
+		game.save(snapshotFile);
+		game.bringCellToLife(new Cell(1, 1));
+		game.load(snapshotFile);
+		assertEquals(0, game.getPopulation());
+		assertEquals(0, game.getGeneration());
+	}
+
+	@Test(expected = IOException.class)
+	public void load_NonSnapshotThrowsException() throws IOException {
+		Files.write(snapshotFile, "#N Glider\nx = 3, y = 3\nbo$2bo$3o!\n".getBytes("US-ASCII"));
+		game.load(snapshotFile);
+	}
+
+	@Test(expected = IOException.class)
+	public void load_TruncatedSnapshotThrowsException() throws IOException {
+		TestUtil.seedRandomSoup(71, 10, 10, 0.5, game);
+		game.save(snapshotFile);
+		try (RandomAccessFile file = new RandomAccessFile(snapshotFile.toFile(), "rw")) {
+			file.setLength(file.length() - 3);
+		}
+		new Game().load(snapshotFile);
+	}
+
+	@Test
+	public void load_CellCountOverflowingFileSizeThrowsException() throws IOException {
+		new Game().save(snapshotFile);
+		try (RandomAccessFile file = new RandomAccessFile(snapshotFile.toFile(), "rw")) {
+			// header only, with a count whose byte size wraps around to 0
+			file.seek(24);
+			file.writeLong(1L << 61);
+		}
+		game.bringCellToLife(new Cell(1, 1));
+		try {
+			game.load(snapshotFile);
+			fail("Loaded 2^61 cells from a header");
+		} catch (IOException ioe) {
+			assertTrue("Rejected before the game was reset", game.isCellAlive(new Cell(1, 1)));
+		}
+	}
+}
@@ -1,4 +1,7 @@
 package com.uprr.game.gameoflife;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -8,6 +11,10 @@ import org.junit.Test;
 
 import com.uprr.game.gameoflife.Cell;
 import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Game.TickMode;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.test.TestUtil;
 
 import static org.junit.Assert.*;
 
@@ -147,23 +154,27 @@ public class GameTest {
 		
 	}	
 	
+	@SuppressWarnings("deprecation")
 	@Test
 	public void conwayRule1_LoneCellDies() {
 		assertTrue(game.conwayRule1_DoesCellDieOfLoneliness(0));
 	}
 
+	@SuppressWarnings("deprecation")
 	@Test
 	public void conwayRule1_OneNeighborCellsDie() {
 		assertTrue(game.conwayRule1_DoesCellDieOfLoneliness(1));
 	}	
 
 
+	@SuppressWarnings("deprecation")
 	@Test
 	public void conwayRule1_CellsWithTwoNeighborsLives() {
 		assertFalse(game.conwayRule1_DoesCellDieOfLoneliness(2));
 	}	
 
 
+	@SuppressWarnings("deprecation")
 	@Test
 	public void conwayRule2_CellsWithOverThreeNeighborsDies() {
 		assertTrue(game.conwayRule2_DoesCellDieOfOvercrowding(4));
@@ -171,6 +182,7 @@ public class GameTest {
 	}
 
 
+	@SuppressWarnings("deprecation")
 	@Test
 	public void conwayRule3_CellsWithTwoOrThreeNeighborsLives() {	
 		assertTrue("2 neighbors", game.conwayRule3_DoesSocialCellLiveOn(2));
@@ -180,11 +192,35 @@ public class GameTest {
 	}	
 
 
+	@SuppressWarnings("deprecation")
 	@Test
 	public void conwayRule4_CellWithThreeNeighborsIsResurrected() {
 		assertTrue(game.conwayRule4_DoesCellHaveEnoughSupportToResurrect(3));
 	}
 	
+	@SuppressWarnings("deprecation")
+	@Test
+	public void tick_OverriddenConwayRulesStillDecideConwayTicks() {
+		for (TickMode tickMode : TickMode.values()) {
+			Game noBirthGame = new Game(tickMode) {
+				protected boolean conwayRule4_DoesCellHaveEnoughSupportToResurrect(int neighborCount) {
+					return false;
+				}
+			};
+			noBirthGame.bringCellToLife(new Cell(4, 5));
+			noBirthGame.bringCellToLife(new Cell(5, 5));
+			noBirthGame.bringCellToLife(new Cell(6, 5));
+			noBirthGame.tick();
+			assertEquals(tickMode+" blinker without births", Arrays.asList(new Cell(5, 5)), noBirthGame.getLiveCells());
+			
+			noBirthGame.setRule(Rule.HIGHLIFE);
+			noBirthGame.bringCellToLife(new Cell(4, 5));
+			noBirthGame.bringCellToLife(new Cell(6, 5));
+			noBirthGame.tick();
+			assertTrue(tickMode+" other rules ignore the override", noBirthGame.isCellAlive(new Cell(5, 4)));
+		}
+	}
+	
 	@Test
 	public void tick_LoneCellDies() {
 		Cell point = new Cell(23, 12);
@@ -365,10 +401,480 @@ public class GameTest {
 				game.isCellAlive(expectedNewLowerHookCornerPoint));
 	}
 	
+	@Test
+	public void tickMode_DefaultsToNeighborProbe() {
+		assertEquals(TickMode.NEIGHBOR_PROBE, game.getTickMode());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void tickMode_NullThrowsException() {
+		game.setTickMode(null);
+	}
+	
+	@Test
+	public void tick_NeighborCountModeKillsLoneCellAndBirthsCorner() {
+		game.setTickMode(TickMode.NEIGHBOR_COUNT);
+		game.bringCellToLife(new Cell(23, 12));
+		game.bringCellToLife(new Cell(22, 12));
+		game.bringCellToLife(new Cell(22, 13));
+		game.bringCellToLife(new Cell(25, 12));
+		game.tick();
+		
+		assertEquals("Born cells", 1, game.getBornCells().size());
+		assertTrue("Born corner", game.getBornCells().contains(new Cell(23, 13)));
+		assertEquals("Killed cells", 1, game.getKilledCells().size());
+		assertTrue("Killed loner", game.getKilledCells().contains(new Cell(25, 12)));
+	}
+	
+	@Test
+	public void tick_NeighborCountModeMatchesNeighborProbeMode() {
+		
+		Game countingGame = new Game(TickMode.NEIGHBOR_COUNT);
+		TestUtil.seedRandomSoup(11, 40, 40, 0.4, game, countingGame);
+		
+		for (int generation = 1; generation <= 50; generation++) {
+			game.tick();
+			countingGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(game), TestUtil.liveCellSet(countingGame));
+		}
+	}
+	
+	@Test
+	public void tick_ParallelModeMatchesNeighborProbeMode() {
+		
+		Game parallelGame = new Game(TickMode.PARALLEL);
+		parallelGame.setParallelism(3);
+		TestUtil.seedRandomSoup(17, 60, 60, 0.4, game, parallelGame);
+		
+		for (int generation = 1; generation <= 50; generation++) {
+			game.tick();
+			parallelGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(game), TestUtil.liveCellSet(parallelGame));
+			assertEquals("Born "+generation, new HashSet<Cell>(game.getBornCells()), new HashSet<Cell>(parallelGame.getBornCells()));
+		}
+	}
+	
+	@Test
+	public void tick_ParallelModeOneRowBandsMatchNeighborProbeMode() {
+		
+		// 32 threads x 4 bands over a 30 row soup, so every band is one row and
+		// births in it come only from the rows either side
+		Game parallelGame = new Game(TickMode.PARALLEL);
+		parallelGame.setParallelism(32);
+		TestUtil.seedRandomSoup(29, 30, 30, 0.4, game, parallelGame);
+		
+		for (int generation = 1; generation <= 20; generation++) {
+			game.tick();
+			parallelGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(game), TestUtil.liveCellSet(parallelGame));
+		}
+	}
+	
+	@Test
+	public void tick_ParallelModeIsDeterministic() {
+		
+		Game parallelGame1 = new Game(TickMode.PARALLEL), parallelGame2 = new Game(TickMode.PARALLEL);
+		parallelGame1.setParallelism(7);
+		parallelGame2.setParallelism(7);
+		TestUtil.seedRandomSoup(19, 50, 50, 0.3, parallelGame1, parallelGame2);
+		
+		for (int generation = 1; generation <= 10; generation++) {
+			parallelGame1.tick();
+			parallelGame2.tick();
+			assertEquals("Born order "+generation, parallelGame1.getBornCells(), parallelGame2.getBornCells());
+			assertEquals("Killed order "+generation, parallelGame1.getKilledCells(), parallelGame2.getKilledCells());
+		}
+	}
+	
+	@Test
+	public void tick_ParallelModeEmptyGameStaysEmpty() {
+		game.setTickMode(TickMode.PARALLEL);
+		game.tick();
+		assertEquals(0, game.getLiveCells().size());
+		assertEquals(0, game.getBornCells().size());
+	}
+	
+	@Test
+	public void tick_ActiveSetModeMatchesNeighborProbeMode() {
+		
+		Game activeSetGame = new Game(TickMode.ACTIVE_SET);
+		TestUtil.seedRandomSoup(23, 40, 40, 0.4, game, activeSetGame);
+		
+		for (int generation = 1; generation <= 80; generation++) {
+			game.tick();
+			activeSetGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(game), TestUtil.liveCellSet(activeSetGame));
+			assertEquals("Born "+generation, new HashSet<Cell>(game.getBornCells()), new HashSet<Cell>(activeSetGame.getBornCells()));
+			assertEquals("Killed "+generation, new HashSet<Cell>(game.getKilledCells()), new HashSet<Cell>(activeSetGame.getKilledCells()));
+		}
+	}
+	
+	@Test
+	public void tick_ActiveSetModeFollowsEditsBetweenTicks() {
+		
+		Game activeSetGame = new Game(TickMode.ACTIVE_SET);
+		TestUtil.seedRandomSoup(29, 30, 30, 0.4, game, activeSetGame);
+		
+		for (int generation = 1; generation <= 40; generation++) {
+			if (generation % 5 == 0) {
+				Cell editedCell = new Cell(generation % 30, 15);
+				for (Game eachGame : new Game[] { game, activeSetGame })
+					if (eachGame.isCellAlive(editedCell))
+						eachGame.killCell(editedCell);
+					else
+						eachGame.bringCellToLife(editedCell);
+			}
+			game.tick();
+			activeSetGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(game), TestUtil.liveCellSet(activeSetGame));
+		}
+	}
+	
+	@Test
+	public void tick_ActiveSetModeCanBeSwitchedToMidRun() {
+		
+		Game switchingGame = new Game(TickMode.NEIGHBOR_COUNT);
+		TestUtil.seedRandomSoup(31, 30, 30, 0.4, game, switchingGame);
+		
+		for (int generation = 1; generation <= 40; generation++) {
+			switchingGame.setTickMode(generation % 2 == 0 ? TickMode.ACTIVE_SET : TickMode.NEIGHBOR_COUNT);
+			game.tick();
+			switchingGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(game), TestUtil.liveCellSet(switchingGame));
+		}
+	}
+	
+	@Test
+	public void tick_ActiveSetModeStillLifeLeavesNothingToEvaluate() throws Exception {
+		
+		game.setTickMode(TickMode.ACTIVE_SET);
+		game.bringCellToLife(new Cell(1, 1));
+		game.bringCellToLife(new Cell(1, 2));
+		game.bringCellToLife(new Cell(2, 1));
+		game.bringCellToLife(new Cell(2, 2));
+		
+		game.tick();
+		
+		Set<Cell> changedCells = TestUtil.getPrivateField(game, "changedCells");
+		assertEquals("Changed cells", 0, changedCells.size());
+		assertEquals("Cell count", 4, game.getLiveCells().size());
+		game.tick();
+		assertEquals("Cell count", 4, game.getLiveCells().size());
+	}
+	
+	@Test
+	public void setRule_DefaultsToConway() {
+		assertEquals(Rule.CONWAY, game.getRule());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void setRule_NullThrowsException() {
+		game.setRule(null);
+	}
+	
+	@Test
+	public void tick_HighLifeBirthsDeadCellWithSixNeighbors() {
+		
+		// six cells around (5, 5), in two columns of three
+		for (int y = 4; y <= 6; y++) {
+			game.bringCellToLife(new Cell(4, y));
+			game.bringCellToLife(new Cell(6, y));
+		}
+		Game conwayGame = new Game();
+		for (Cell liveCell : game.getLiveCells())
+			conwayGame.bringCellToLife(liveCell);
+		game.setRule(Rule.HIGHLIFE);
+		
+		game.tick();
+		conwayGame.tick();
+		
+		assertTrue("HighLife birth", game.isCellAlive(new Cell(5, 5)));
+		assertFalse("No Conway birth", conwayGame.isCellAlive(new Cell(5, 5)));
+	}
+	
+	@Test
+	public void tick_EveryModeMatchesAfterRuleChange() {
+		
+		List<Game> games = new ArrayList<Game>();
+		for (TickMode tickMode : TickMode.values())
+			games.add(new Game(tickMode));
+		TestUtil.seedRandomSoup(47, 40, 40, 0.35, games.toArray(new Game[0]));
+		
+		for (int generation = 1; generation <= 60; generation++) {
+			for (Game eachGame : games) {
+				if (generation == 25)
+					eachGame.setRule(Rule.HIGHLIFE);
+				eachGame.tick();
+			}
+			for (Game eachGame : games)
+				assertEquals(eachGame.getTickMode()+" generation "+generation, TestUtil.liveCellSet(games.get(0)), TestUtil.liveCellSet(eachGame));
+		}
+	}
+	
+	@Test
+	public void tick_PreviousGenerationListIsUntouched() {
+		game.bringCellToLife(new Cell(4, 5));
+		game.bringCellToLife(new Cell(5, 5));
+		game.bringCellToLife(new Cell(6, 5));
+		List<Cell> previousGeneration = game.getLiveCellsView();
+		Set<Cell> previousCells = new HashSet<Cell>(previousGeneration);
+		
+		game.tick();
+		
+		assertNotSame("New generation list", previousGeneration, game.getLiveCellsView());
+		assertEquals("Previous generation", previousCells, new HashSet<Cell>(previousGeneration));
+		assertTrue(game.isCellAlive(new Cell(5, 4)));
+		assertFalse(game.isCellAlive(new Cell(4, 5)));
+	}
+	
+	@Test
+	public void tick_RecycledListFailsFast() {
+		for (TickMode tickMode : TickMode.values()) {
+			game = new Game(tickMode);
+			game.bringCellToLife(new Cell(4, 5));
+			List<Cell> firstGeneration = game.getLiveCellsView();
+			game.tick();
+			assertEquals(tickMode+" valid for one tick", Arrays.asList(new Cell(4, 5)), firstGeneration);
+			game.tick();
+			try {
+				firstGeneration.size();
+				fail(tickMode+" recycled list still used");
+			} catch (ConcurrentModificationException cme) {
+			}
+			assertEquals(0, game.getLiveCells().size());
+		}
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void getLiveCellsView_ReadOnly() {
+		game.getLiveCellsView().add(new Cell(1, 2));
+	}
+	
+	@Test
+	public void getLiveCells_FollowsTicksAndEditsThroughItAreTicked() {
+		for (TickMode tickMode : TickMode.values()) {
+			game = new Game(tickMode);
+			List<Cell> liveCells = game.getLiveCells();
+			liveCells.add(new Cell(4, 5));
+			liveCells.add(new Cell(5, 5));
+			liveCells.add(new Cell(6, 5));
+			game.tick();
+			game.tick();
+			assertEquals(tickMode+" blinker back", 3, liveCells.size());
+			
+			long editCount = game.getEditCount();
+			liveCells.remove(new Cell(4, 5));
+			liveCells.remove(new Cell(6, 5));
+			liveCells.add(new Cell(5, 4));
+			liveCells.add(new Cell(5, 6));
+			assertEquals(tickMode+" edits counted", editCount + 4, game.getEditCount());
+			game.tick();
+			assertEquals(tickMode+" edited blinker turned", new HashSet<Cell>(Arrays.asList(new Cell(4, 5), new Cell(5, 5), new Cell(6, 5))),
+					new HashSet<Cell>(liveCells));
+		}
+	}
+
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void setParallelism_ZeroThrowsException() {
+		game.setParallelism(0);
+	}
+	
+	@Test
+	public void advanceByPowerOfTwo_BlinkerBackAfterTwoGenerations() {
+		Cell left = new Cell(4, 5), middle = new Cell(5, 5), right = new Cell(6, 5);
+		game.bringCellToLife(left);
+		game.bringCellToLife(middle);
+		game.bringCellToLife(right);
+		
+		game.advanceByPowerOfTwo(1);
+		
+		assertEquals("Cell count", 3, game.getLiveCells().size());
+		assertTrue(game.isCellAlive(left));
+		assertTrue(game.isCellAlive(middle));
+		assertTrue(game.isCellAlive(right));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void advanceByPowerOfTwo_TooLargePowerThrowsException() {
+		game.advanceByPowerOfTwo(63);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void advanceByPowerOfTwo_PastMaximumThrowsException() {
+		game.advanceByPowerOfTwo(Game.MAX_LOG2_GENERATIONS + 1);
+	}
+	
+	@Test
+	public void getGeneration_CountsTicksUntilReset() {
+		assertEquals(0, game.getGeneration());
+		game.tick();
+		game.advanceByPowerOfTwo(2);
+		assertEquals(5, game.getGeneration());
+		game.reset();
+		assertEquals(0, game.getGeneration());
+	}
+	
+	@Test
+	public void getBornCells_NullBeforeFirstTickInEveryEngine() {
+		OffHeapBitboardGame offHeapGame = new OffHeapBitboardGame(64, 64);
+		try {
+			for (Game engine : new Game[] { new Game(), new PackedGame(), new BitboardGame(64, 64), offHeapGame, new TiledGame(),
+					new HashLifeGame() }) {
+				String name = engine.getClass().getSimpleName();
+				engine.bringCellToLife(new Cell(1, 1));
+				assertNull(name+" born cells", engine.getBornCells());
+				assertNull(name+" killed cells", engine.getKilledCells());
+				assertNull(name+" born cells in a region", engine.getBornCells(0, 0, 10, 10));
+				
+				engine.tick();
+				assertEquals(name+" born cells after a tick", 0, engine.getBornCells().size());
+				assertEquals(name+" killed cells after a tick", Arrays.asList(new Cell(1, 1)), engine.getKilledCells());
+			}
+		} finally {
+			offHeapGame.close();
+		}
+	}
+	
+	@Test
+	public void getEditCount_EditsCountedInEveryEngine() {
+		OffHeapBitboardGame offHeapGame = new OffHeapBitboardGame(64, 64);
+		try {
+			for (Game engine : new Game[] { new Game(), new PackedGame(), new TiledGame(), new BitboardGame(64, 64),
+					offHeapGame, new HashLifeGame() }) {
+				String name = engine.getClass().getSimpleName();
+				long editCount = engine.getEditCount();
+				engine.bringCellToLife(new Cell(1, 1));
+				assertTrue(name+" after bringCellToLife", engine.getEditCount() > editCount);
+				
+				editCount = engine.getEditCount();
+				engine.tick();
+				assertEquals(name+" after tick", editCount, engine.getEditCount());
+				
+				engine.bringCellsToLife(new long[] { Cell.pack(2, 2) }, 0, 1);
+				assertTrue(name+" after bringCellsToLife", engine.getEditCount() > editCount);
+				
+				editCount = engine.getEditCount();
+				engine.killCell(new Cell(2, 2));
+				assertTrue(name+" after killCell", engine.getEditCount() > editCount);
+				
+				editCount = engine.getEditCount();
+				engine.reset();
+				assertTrue(name+" after reset", engine.getEditCount() > editCount);
+			}
+		} finally {
+			offHeapGame.close();
+		}
+	}
+	
+	@Test
+	public void getChangesFromGeneration_GenerationBeforeLastTick() {
+		assertEquals(-1, game.getChangesFromGeneration());
+		game.tick();
+		game.advanceByPowerOfTwo(2);
+		assertEquals("Base game jumps tick by tick", 4, game.getChangesFromGeneration());
+		game.reset();
+		assertEquals(-1, game.getChangesFromGeneration());
+	}
+	
+	@Test
+	public void tick_RecordsMetricsInEveryMode() {
+		for (Game.TickMode tickMode : Game.TickMode.values()) {
+			Game blinkerGame = new Game(tickMode);
+			blinkerGame.bringCellToLife(new Cell(0, 0));
+			blinkerGame.bringCellToLife(new Cell(1, 0));
+			blinkerGame.bringCellToLife(new Cell(2, 0));
+			blinkerGame.tick();
+			
+			TickMetrics tickMetrics = blinkerGame.getTickMetrics();
+			assertEquals(tickMode.name(), 1, tickMetrics.getTickCount());
+			assertEquals(tickMode.name(), 2, tickMetrics.getBirths());
+			assertEquals(tickMode.name(), 2, tickMetrics.getDeaths());
+			assertEquals(tickMode.name(), 3, tickMetrics.getPopulation());
+			assertTrue(tickMode.name(), tickMetrics.getCandidateCells() >= 3);
+		}
+	}
+	
+	@Test
+	public void bringCellsToLife_SkipsLiveCells() {
+		game.bringCellToLife(new Cell(1, 2));
+		long[] packedCells = { 0L, Cell.pack(1, 2), Cell.pack(-3, -4), Cell.pack(-3, -4) };
+		
+		game.bringCellsToLife(packedCells, 1, 3);
+		
+		assertEquals("Cell count", 2, game.getLiveCells().size());
+		assertTrue(game.isCellAlive(new Cell(-3, -4)));
+		assertFalse("Before offset", game.isCellAlive(new Cell(0, 0)));
+	}
+	
 	@Test
 	public void reset_CellCountBackToZero() {
 		game.bringCellToLife(new Cell(12, 34));
 		game.reset();
 		assertEquals(0, game.getLiveCells().size());		
 	}	
+
+	@Test
+	public void getLiveCellsInRegion_MatchesCellsPickedOutInEveryMode() {
+		for (Game.TickMode tickMode : Game.TickMode.values()) {
+			game = new Game(tickMode);
+			TestUtil.seedRandomSoup(7, 48, 48, 0.35, game);
+			assertEquals(tickMode+" before the first query",
+					TestUtil.cellsIn(game.getLiveCells(), 5, 7, 20, 13), new HashSet<Cell>(game.getLiveCells(5, 7, 20, 13)));
+			for (int i = 0; i < 6; i++) {
+				game.tick();
+				assertEquals(tickMode+" after tick "+(i + 1),
+						TestUtil.cellsIn(game.getLiveCells(), 5, 7, 20, 13), new HashSet<Cell>(game.getLiveCells(5, 7, 20, 13)));
+				assertEquals(tickMode+" born cells after tick "+(i + 1),
+						TestUtil.cellsIn(game.getBornCells(), 5, 7, 20, 13), new HashSet<Cell>(game.getBornCells(5, 7, 20, 13)));
+				assertEquals(tickMode+" killed cells after tick "+(i + 1),
+						TestUtil.cellsIn(game.getKilledCells(), 5, 7, 20, 13), new HashSet<Cell>(game.getKilledCells(5, 7, 20, 13)));
+			}
+		}
+	}
+	
+	@Test
+	public void getLiveCellsInRegion_EditsAndWholePlane() {
+		game.bringCellToLife(new Cell(-40, -40));
+		game.bringCellToLife(new Cell(3, 4));
+		assertEquals(Arrays.asList(new Cell(3, 4)), game.getLiveCells(0, 0, 10, 10));
+		
+		game.killCell(new Cell(3, 4));
+		game.bringCellToLife(new Cell(9, 9));
+		assertEquals(Arrays.asList(new Cell(9, 9)), game.getLiveCells(0, 0, 10, 10));
+		assertEquals("Region ends before x = 10", 0, game.getLiveCells(10, 0, 10, 10).size());
+		assertEquals("Empty region", 0, game.getLiveCells(9, 9, 0, 1).size());
+		assertEquals("North west quarter of the plane", Arrays.asList(new Cell(-40, -40)),
+				game.getLiveCells(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE));
+		assertEquals("South east quarter of the plane", Arrays.asList(new Cell(9, 9)),
+				game.getLiveCells(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE));
+	}
+	
+	@Test
+	public void getLiveCellsInRegion_IndexKeptUpOnceQueried() {
+		for (Game.TickMode tickMode : Game.TickMode.values()) {
+			game = new Game(tickMode);
+			TestUtil.seedRandomSoup(11, 48, 48, 0.35, game);
+			game.tick();
+			assertFalse(tickMode+" not started by ticks", game.hasTileIndex());
+			
+			game.getLiveCells(0, 0, 16, 16);
+			for (int i = 0; i < 5; i++) {
+				game.tick();
+				game.bringCellToLife(new Cell(100 + i, 100));
+				game.killCell(game.getLiveCells().get(0));
+				assertEquals(tickMode+" after tick "+(i + 1),
+						TestUtil.cellsIn(game.getLiveCells(), -1, -1, 110, 110), new HashSet<Cell>(game.getLiveCells(-1, -1, 110, 110)));
+			}
+			
+			game.reset();
+			game.bringCellToLife(new Cell(3, 3));
+			assertEquals(tickMode+" after reset", Arrays.asList(new Cell(3, 3)), game.getLiveCells(0, 0, 100, 100));
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void getLiveCellsInRegion_NegativeWidthThrowsException() {
+		game.getLiveCells(0, 0, -1, 10);
+	}
 }
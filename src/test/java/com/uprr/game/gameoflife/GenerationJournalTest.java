@@ -0,0 +1,203 @@
+package com.uprr.game.gameoflife;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class GenerationJournalTest {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private Path journalFile;
+	private Game game;
+
+	@Before
+	public void setUp() throws IOException {
+		journalFile = tempFolder.newFile("run.journal").toPath();
+		game = new Game();
+	}
+
+	/**
+	 * Records the game for the given ticks, returning the live cells at each
+	 * generation
+	 */
+	private List<Set<Cell>> recordRun(Game game, int ticks, long keyframeInterval) throws IOException {
+
+		List<Set<Cell>> generations = new ArrayList<Set<Cell>>();
+		try (GenerationJournal journal = new GenerationJournal(journalFile, keyframeInterval)) {
+			for (int tick = 0; tick <= ticks; tick++) {
+				if (tick > 0)
+					game.tick();
+				journal.record(game);
+				generations.add(TestUtil.liveCellSet(game));
+			}
+		}
+		return generations;
+	}
+
+	@Test
+	public void restore_EveryGenerationMatchesRun() throws IOException {
+
+		TestUtil.seedRandomSoup(17, 40, 40, 0.35, game);
+		List<Set<Cell>> generations = recordRun(game, 60, 16);
+
+		for (int generation : new int[] { 0, 1, 15, 16, 17, 37, 48, 60 }) {
+			PackedGame restored = new PackedGame();
+			assertEquals(generation, GenerationJournal.restore(journalFile, generation, restored));
+			assertEquals("Generation "+generation, generations.get(generation), TestUtil.liveCellSet(restored));
+			assertEquals(generation, restored.getGeneration());
+		}
+		assertEquals("Keyframes", 4, Files.size(GenerationJournal.indexFile(journalFile)) / GenerationJournal.INDEX_ENTRY_BYTES);
+	}
+
+	@Test
+	public void restore_PastEndGivesLastRecordedGeneration() throws IOException {
+		TestUtil.seedRandomSoup(18, 20, 20, 0.35, game);
+		List<Set<Cell>> generations = recordRun(game, 10, 4);
+		assertEquals(10, GenerationJournal.restore(journalFile, 1000, game));
+		assertEquals(generations.get(10), TestUtil.liveCellSet(game));
+	}
+
+	@Test
+	public void record_UnrecordedGenerationWritesKeyframe() throws IOException {
+
+		// a blinker's population adds up across any changes, so only the generations tell
+		game.bringCellToLife(new Cell(4, 5));
+		game.bringCellToLife(new Cell(5, 5));
+		game.bringCellToLife(new Cell(6, 5));
+		try (GenerationJournal journal = new GenerationJournal(journalFile, 1000)) {
+			journal.record(game);
+			game.tick();
+			game.tick();	// generation 1 isn't recorded, so the born and killed cells are 1 -> 2, not 0 -> 2
+			journal.record(game);
+		}
+
+		Set<Cell> expected = TestUtil.liveCellSet(game);
+		Game restored = new Game();
+		assertEquals(2, GenerationJournal.restore(journalFile, 2, restored));
+		assertEquals(expected, TestUtil.liveCellSet(restored));
+		assertEquals("Keyframes", 2, Files.size(GenerationJournal.indexFile(journalFile)) / GenerationJournal.INDEX_ENTRY_BYTES);
+	}
+
+	@Test
+	public void record_EditBetweenTicksWritesKeyframe() throws IOException {
+
+		TestUtil.seedRandomSoup(19, 20, 20, 0.35, game);
+		try (GenerationJournal journal = new GenerationJournal(journalFile, 1000)) {
+			journal.record(game);
+			game.tick();
+			journal.record(game);
+			game.bringCellToLife(new Cell(500, 500));
+			journal.record(game);
+			game.tick();
+			journal.record(game);
+		}
+
+		Set<Cell> expected = TestUtil.liveCellSet(game);
+		Game restored = new Game();
+		assertEquals(2, GenerationJournal.restore(journalFile, 2, restored));
+		assertEquals(expected, TestUtil.liveCellSet(restored));
+		assertEquals("Keyframes", 2, Files.size(GenerationJournal.indexFile(journalFile)) / GenerationJournal.INDEX_ENTRY_BYTES);
+	}
+
+	@Test
+	public void record_EditKeepingPopulationWritesKeyframe() throws IOException {
+
+		TestUtil.seedRandomSoup(19, 20, 20, 0.35, game);
+		try (GenerationJournal journal = new GenerationJournal(journalFile, 1000)) {
+			journal.record(game);
+			game.tick();
+			journal.record(game);
+			// swap one live cell for another, so the population still adds up
+			game.killCell(game.getLiveCells().get(0));
+			game.bringCellToLife(new Cell(500, 500));
+			game.tick();
+			journal.record(game);
+		}
+
+		Set<Cell> expected = TestUtil.liveCellSet(game);
+		Game restored = new Game();
+		assertEquals(2, GenerationJournal.restore(journalFile, 2, restored));
+		assertEquals(expected, TestUtil.liveCellSet(restored));
+		assertEquals("Keyframes", 2, Files.size(GenerationJournal.indexFile(journalFile)) / GenerationJournal.INDEX_ENTRY_BYTES);
+	}
+
+	@Test
+	public void restore_RuleSwitchReplayed() throws IOException {
+
+		TestUtil.seedRandomSoup(20, 20, 20, 0.35, game);
+		try (GenerationJournal journal = new GenerationJournal(journalFile, 1000)) {
+			journal.record(game);
+			game.tick();
+			game.setRule(com.uprr.game.gameoflife.Rule.HIGHLIFE);
+			game.tick();
+			journal.record(game);
+		}
+
+		Game restored = new Game();
+		GenerationJournal.restore(journalFile, 2, restored);
+		assertEquals(com.uprr.game.gameoflife.Rule.HIGHLIFE, restored.getRule());
+	}
+
+	@Test
+	public void restore_HashLifeJumpsRecordedAsDeltas() throws IOException {
+
+		HashLifeGame hashLifeGame = new HashLifeGame();
+		TestUtil.seedRandomSoup(21, 30, 30, 0.35, hashLifeGame);
+		try (GenerationJournal journal = new GenerationJournal(journalFile, 1000)) {
+			journal.record(hashLifeGame);
+			for (int jump = 0; jump < 4; jump++) {
+				hashLifeGame.advanceByPowerOfTwo(3);
+				journal.record(hashLifeGame);
+			}
+		}
+
+		Game restored = new Game();
+		assertEquals(24, GenerationJournal.restore(journalFile, 30, restored));
+		assertEquals("Keyframes", 1, Files.size(GenerationJournal.indexFile(journalFile)) / GenerationJournal.INDEX_ENTRY_BYTES);
+
+		HashLifeGame reference = new HashLifeGame();
+		TestUtil.seedRandomSoup(21, 30, 30, 0.35, reference);
+		reference.advanceByPowerOfTwo(3);
+		reference.advanceByPowerOfTwo(4);
+		assertEquals(TestUtil.liveCellSet(reference), TestUtil.liveCellSet(restored));
+	}
+
+	@Test
+	public void restore_TruncatedTailIgnored() throws IOException {
+
+		TestUtil.seedRandomSoup(22, 20, 20, 0.35, game);
+		List<Set<Cell>> generations = recordRun(game, 5, 1000);
+		try (RandomAccessFile journal = new RandomAccessFile(journalFile.toFile(), "rw")) {
+			journal.setLength(journal.length() - 3);
+		}
+
+		assertEquals(4, GenerationJournal.restore(journalFile, 5, game));
+		assertEquals(generations.get(4), TestUtil.liveCellSet(game));
+	}
+
+	@Test(expected = IOException.class)
+	public void restore_NotAJournalThrowsException() throws IOException {
+		Files.write(journalFile, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+		GenerationJournal.restore(journalFile, 0, game);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void constructor_ZeroKeyframeIntervalThrowsException() throws IOException {
+		new GenerationJournal(journalFile, 0);
+	}
+}
@@ -0,0 +1,120 @@
+package com.uprr.game.gameoflife;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LiveCellListTest {
+
+	private LiveCellList cellList;
+
+	@Before
+	public void setUp() {
+		cellList = new LiveCellList();
+	}
+
+	@Test
+	public void add_DuplicateCellIgnored() {
+		assertTrue("First add", cellList.add(new Cell(1, 2)));
+		assertFalse("Second add", cellList.add(new Cell(1, 2)));
+		assertEquals(1, cellList.size());
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void add_NullCellThrowsException() {
+		cellList.add(null);
+	}
+
+	@Test
+	public void contains_FindsEqualCell() {
+		cellList.add(new Cell(-4, 7));
+		assertTrue(cellList.contains(new Cell(-4, 7)));
+		assertFalse(cellList.contains(new Cell(7, -4)));
+	}
+
+	@Test
+	public void remove_MiddleCellKeepsOthersIndexed() {
+		for (int x = 0; x < 5; x++)
+			cellList.add(new Cell(x, 0));
+
+		assertTrue(cellList.remove(new Cell(1, 0)));
+		assertFalse("Already removed", cellList.remove(new Cell(1, 0)));
+
+		assertEquals(4, cellList.size());
+		for (int x = 0; x < 5; x++)
+			if (x != 1) {
+				Cell cell = new Cell(x, 0);
+				assertTrue("Still contains "+cell, cellList.contains(cell));
+				assertEquals("Index of "+cell, cell, cellList.get(cellList.indexOf(cell)));
+			}
+	}
+
+	@Test
+	public void remove_ByIndexReturnsRemovedCell() {
+		cellList.add(new Cell(3, 3));
+		cellList.add(new Cell(4, 4));
+		assertEquals(new Cell(3, 3), cellList.remove(0));
+		assertEquals(0, cellList.indexOf(new Cell(4, 4)));
+	}
+
+	@Test
+	public void grow_ManyCellsAllFound() {
+		for (int x = -50; x < 50; x++)
+			for (int y = -50; y < 50; y++)
+				cellList.add(new Cell(x, y));
+		assertEquals(10000, cellList.size());
+		assertTrue(cellList.contains(new Cell(-50, 49)));
+	}
+
+	@Test
+	public void clear_EmptiesList() {
+		cellList.add(new Cell(3, 3));
+		cellList.clear();
+		assertEquals(0, cellList.size());
+		assertFalse(cellList.contains(new Cell(3, 3)));
+	}
+
+	@Test
+	public void iterator_AddWhileIteratingDoesntThrow() {
+		for (int x = 0; x < 10; x++)
+			cellList.add(new Cell(x, 0));
+
+		int count = 0;
+		for (Iterator<Cell> cells = cellList.iterator(); cells.hasNext(); count++)
+			cellList.add(new Cell(cells.next().getX(), 1));
+
+		assertEquals("Visited cells", 10, count);
+		assertEquals(20, cellList.size());
+	}
+
+	@Test
+	public void iterator_RemoveWhileIteratingDoesntThrow() {
+		for (int x = 0; x < 10; x++)
+			cellList.add(new Cell(x, 0));
+
+		for (Iterator<Cell> cells = cellList.iterator(); cells.hasNext(); )
+			cellList.remove(cells.next());
+
+		assertTrue("Some cells removed", cellList.size() < 10);
+	}
+
+	@Test
+	public void view_FollowsEditsUntilRecycled() {
+		List<Cell> view = cellList.view();
+		cellList.add(new Cell(1, 2));
+		Iterator<Cell> cells = view.iterator();
+		assertEquals("Edit seen", 1, view.size());
+
+		cellList.recycle();
+		assertEquals("Fresh view", 1, cellList.view().size());
+		try {
+			cells.hasNext();
+			fail("Iterator used after recycling");
+		} catch (ConcurrentModificationException cme) {
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.uprr.game.gameoflife;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LongCellSetTest {
+
+	private LongCellSet cellSet;
+
+	@Before
+	public void setUp() {
+		cellSet = new LongCellSet();
+	}
+
+	@Test
+	public void pack_RoundTripsNegativeAndExtremeCoords() {
+		int[] coords = { 0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE, 12345, -98765 };
+		for (int x : coords)
+			for (int y : coords) {
+				long packedCell = LongCellSet.pack(x, y);
+				assertEquals("X of "+x+","+y, x, LongCellSet.unpackX(packedCell));
+				assertEquals("Y of "+x+","+y, y, LongCellSet.unpackY(packedCell));
+			}
+	}
+
+	@Test
+	public void add_OriginTrackedSeparately() {
+		assertFalse(cellSet.contains(LongCellSet.pack(0, 0)));
+		assertTrue(cellSet.add(LongCellSet.pack(0, 0)));
+		assertFalse("Second add", cellSet.add(LongCellSet.pack(0, 0)));
+		assertTrue(cellSet.contains(LongCellSet.pack(0, 0)));
+		assertEquals(1, cellSet.size());
+		assertTrue(cellSet.remove(LongCellSet.pack(0, 0)));
+		assertFalse("Second remove", cellSet.remove(LongCellSet.pack(0, 0)));
+		assertEquals(0, cellSet.size());
+	}
+
+	@Test
+	public void addAndRemove_MatchesHashSetUnderRandomOperations() {
+
+		Random random = new Random(42);
+		Set<Long> expected = new HashSet<Long>();
+
+		for (int i = 0; i < 50000; i++) {
+			long packedCell = LongCellSet.pack(random.nextInt(64) - 32, random.nextInt(64) - 32);
+			if (random.nextBoolean())
+				assertEquals("add "+i, expected.add(packedCell), cellSet.add(packedCell));
+			else
+				assertEquals("remove "+i, expected.remove(packedCell), cellSet.remove(packedCell));
+		}
+
+		assertEquals("size", expected.size(), cellSet.size());
+		for (int x = -32; x < 32; x++)
+			for (int y = -32; y < 32; y++)
+				assertEquals("contains "+x+","+y, expected.contains(LongCellSet.pack(x, y)),
+						cellSet.contains(LongCellSet.pack(x, y)));
+	}
+
+	@Test
+	public void forEach_VisitsEveryCellOnce() {
+		for (int x = -10; x < 10; x++)
+			cellSet.add(LongCellSet.pack(x, -x));
+
+		final Set<Long> visited = new HashSet<Long>();
+		cellSet.forEach(packedCell -> assertTrue("Visited once", visited.add(packedCell)));
+		assertEquals(20, visited.size());
+	}
+
+	@Test
+	public void clear_EmptiesSet() {
+		cellSet.add(LongCellSet.pack(0, 0));
+		cellSet.add(LongCellSet.pack(3, 4));
+		cellSet.clear();
+		assertEquals(0, cellSet.size());
+		assertFalse(cellSet.contains(LongCellSet.pack(0, 0)));
+		assertFalse(cellSet.contains(LongCellSet.pack(3, 4)));
+	}
+
+	@Test
+	public void clear_ShrinksTableAfterBurst() {
+		for (int x = 0; x < 100000; x++)
+			cellSet.add(LongCellSet.pack(x, 1));
+		cellSet.clear();
+		int burstCapacity = cellSet.capacity();
+		assertTrue("Cleared while full keeps its table", burstCapacity >= 100000);
+
+		for (int x = 0; x < 10; x++)
+			cellSet.add(LongCellSet.pack(x, 1));
+		cellSet.clear();
+		assertTrue("Cleared while mostly empty shrinks", cellSet.capacity() <= 32);
+
+		for (int x = 0; x < 1000; x++)
+			assertTrue(cellSet.add(LongCellSet.pack(x, 2)));
+		assertEquals(1000, cellSet.size());
+		assertTrue(cellSet.contains(LongCellSet.pack(999, 2)));
+		assertFalse(cellSet.contains(LongCellSet.pack(5, 1)));
+	}
+}
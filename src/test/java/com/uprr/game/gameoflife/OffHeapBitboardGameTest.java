@@ -0,0 +1,118 @@
+package com.uprr.game.gameoflife;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class OffHeapBitboardGameTest {
+
+	private static final int WIDTH = 192, HEIGHT = 40;
+
+	private OffHeapBitboardGame game;
+
+	@Before
+	public void setUp() {
+		// small chunks, so rows straddle buffers
+		game = new OffHeapBitboardGame(WIDTH, HEIGHT, 4);
+	}
+
+	@After
+	public void tearDown() {
+		game.close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void create_WidthNotMultipleOf64ThrowsException() {
+		new OffHeapBitboardGame(100, 10);
+	}
+
+	@Test
+	public void bringCellToLife_CoordinatesWrapAroundTorus() {
+		game.bringCellToLife(new Cell(-1, HEIGHT));
+		assertTrue(game.isCellAlive(new Cell(WIDTH-1, 0)));
+		assertEquals(1, game.getPopulation());
+		assertEquals(new Cell(WIDTH-1, 0), game.getLiveCells().get(0));
+		game.killCell(new Cell(WIDTH-1, 0));
+		assertEquals(0, game.getPopulation());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void killCell_DeadCellThrowsException() {
+		game.killCell(new Cell(23, 12));
+	}
+
+	@Test
+	public void tick_RandomSoupMatchesBitboardGame() {
+
+		BitboardGame heapGame = new BitboardGame(WIDTH, HEIGHT);
+		TestUtil.seedRandomSoup(59, WIDTH, HEIGHT, 0.35, game, heapGame);
+
+		for (int generation = 1; generation <= 40; generation++) {
+			game.tick();
+			heapGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(heapGame), TestUtil.liveCellSet(game));
+			assertEquals("Population "+generation, heapGame.getPopulation(), game.getPopulation());
+			assertEquals("Born "+generation, new HashSet<Cell>(heapGame.getBornCells()), new HashSet<Cell>(game.getBornCells()));
+			assertEquals("Killed "+generation, new HashSet<Cell>(heapGame.getKilledCells()), new HashSet<Cell>(game.getKilledCells()));
+		}
+	}
+
+	@Test
+	public void close_TryWithResourcesReleasesStorage() {
+		OffHeapBitboardGame closedGame;
+		try (OffHeapBitboardGame scopedGame = new OffHeapBitboardGame(64, 8)) {
+			closedGame = scopedGame;
+			closedGame.bringCellToLife(new Cell(1, 1));
+			assertFalse(closedGame.isClosed());
+		}
+		assertTrue(closedGame.isClosed());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void close_LaterTickThrowsException() {
+		game.close();
+		game.tick();
+	}
+
+	@Test
+	public void getBornCells_EditsAfterTickLeftOut() {
+		game.bringCellToLife(new Cell(4, 5));
+		game.bringCellToLife(new Cell(5, 5));
+		game.bringCellToLife(new Cell(6, 5));
+		game.tick();
+		game.killCell(new Cell(5, 4));	// born by the tick
+		game.bringCellToLife(new Cell(4, 5));	// killed by the tick
+		game.bringCellToLife(new Cell(20, 20));
+
+		assertEquals(new HashSet<Cell>(Arrays.asList(new Cell(5, 4), new Cell(5, 6))), new HashSet<Cell>(game.getBornCells()));
+		assertEquals(new HashSet<Cell>(Arrays.asList(new Cell(4, 5), new Cell(6, 5))), new HashSet<Cell>(game.getKilledCells()));
+		assertEquals("Edits kept", new HashSet<Cell>(Arrays.asList(new Cell(4, 5), new Cell(5, 5), new Cell(5, 6), new Cell(20, 20))),
+				TestUtil.liveCellSet(game));
+	}
+
+	@Test
+	public void reset_CellCountBackToZero() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.tick();
+		game.reset();
+		assertEquals(0, game.getPopulation());
+		assertEquals(0, game.getLiveCells().size());
+		assertEquals(0, game.getKilledCells().size());
+	}
+
+	@Test
+	public void getLiveCellsInRegion_ClippedToTorus() {
+		TestUtil.seedRandomSoup(3, WIDTH, HEIGHT, 0.3, game);
+		game.tick();
+		assertEquals("Across word boundaries",
+				TestUtil.cellsIn(game.getLiveCells(), 60, 10, 70, 20), new HashSet<Cell>(game.getLiveCells(60, 10, 70, 20)));
+		assertEquals("Past the edges",
+				TestUtil.cellsIn(game.getLiveCells(), -10, -10, WIDTH+20, 30), new HashSet<Cell>(game.getLiveCells(-10, -10, WIDTH+20, 30)));
+	}
+}
@@ -0,0 +1,77 @@
+package com.uprr.game.gameoflife;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OffHeapWordsTest {
+
+	@Test
+	public void set_WordsReadBackAcrossChunks() {
+		OffHeapWords words = new OffHeapWords(100, 4);
+		for (long index = 0; index < words.size(); index++)
+			words.set(index, index * 31 - 7);
+		for (long index = 0; index < words.size(); index++)
+			assertEquals("Word "+index, index * 31 - 7, words.get(index));
+	}
+
+	@Test
+	public void put_RangeSpanningChunksReadsBack() {
+		OffHeapWords words = new OffHeapWords(100, 4);
+		long[] range = new long[40];
+		for (int i = 0; i < range.length; i++)
+			range[i] = -1L - i;
+
+		words.put(13, range, 5, 30);
+
+		assertEquals(0, words.get(12));
+		assertEquals(-6, words.get(13));
+		assertEquals(-35, words.get(42));
+		assertEquals(0, words.get(43));
+		long[] readBack = new long[30];
+		words.get(13, readBack, 0, 30);
+		assertEquals(-6, readBack[0]);
+		assertEquals(-35, readBack[29]);
+	}
+
+	@Test
+	public void clear_AllWordsZero() {
+		OffHeapWords words = new OffHeapWords(50, 3);
+		words.set(0, 1);
+		words.set(49, 1);
+		words.clear();
+		assertEquals(0, words.get(0));
+		assertEquals(0, words.get(49));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void close_LaterUseThrowsException() {
+		OffHeapWords words = new OffHeapWords(10);
+		words.close();
+		assertTrue(words.isClosed());
+		words.get(0);
+	}
+
+	@Test
+	public void close_NativeMemoryFreed() {
+		OffHeapWords words = new OffHeapWords(1 << 20);
+		long directBytes = directMemoryUsed();
+		words.close();
+		assertTrue("8MB freed", directMemoryUsed() <= directBytes - (8 << 20));
+	}
+
+	private static long directMemoryUsed() {
+		for (BufferPoolMXBean bufferPool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class))
+			if (bufferPool.getName().equals("direct"))
+				return bufferPool.getMemoryUsed();
+		throw new IllegalStateException("No direct buffer pool");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void create_NegativeSizeThrowsException() {
+		new OffHeapWords(-1);
+	}
+}
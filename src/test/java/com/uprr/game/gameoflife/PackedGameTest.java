@@ -0,0 +1,118 @@
+package com.uprr.game.gameoflife;
+
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class PackedGameTest {
+
+	private PackedGame game;
+
+	@Before
+	public void setUp() {
+		game = new PackedGame();
+	}
+
+	@Test
+	public void bringCellToLife_CellIsAlive() {
+		game.bringCellToLife(new Cell(-3, 0));
+		assertTrue(game.isCellAlive(new Cell(-3, 0)));
+		assertEquals(1, game.getPopulation());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bringCellToLife_AddToSameCoordThrowsException() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.bringCellToLife(new Cell(12, 34));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void killCell_DeadCellThrowsException() {
+		game.killCell(new Cell(23, 12));
+	}
+
+	@Test
+	public void getNeighborCountAndDeadCells_CountsLiveNeighbors() {
+		game.bringCellToLife(new Cell(23, 12));
+		game.bringCellToLife(new Cell(22, 11));
+		assertEquals(1, game.getNeighborCountAndDeadCells(new Cell(23, 12), null));
+	}
+
+	@Test
+	public void getBornCells_NullBeforeFirstTickLikeGame() {
+		game.bringCellToLife(new Cell(0, 0));
+		assertNull(game.getBornCells());
+		assertNull(game.getKilledCells());
+		assertNull(new Game().getBornCells());
+	}
+
+	@Test
+	public void tick_BlinkerOscillates() {
+		game.bringCellToLife(new Cell(-1, 0));
+		game.bringCellToLife(new Cell(0, 0));
+		game.bringCellToLife(new Cell(1, 0));
+
+		game.tick();
+
+		assertEquals("Population", 3, game.getPopulation());
+		assertTrue(game.isCellAlive(new Cell(0, -1)));
+		assertTrue(game.isCellAlive(new Cell(0, 1)));
+		assertEquals("Born", 2, game.getBornCells().size());
+		assertEquals("Killed", 2, game.getKilledCells().size());
+		assertTrue(game.getKilledCells().contains(new Cell(-1, 0)));
+	}
+
+	@Test
+	public void tick_RandomSoupMatchesGame() {
+
+		Game referenceGame = new Game();
+		TestUtil.seedRandomSoup(7, 40, 40, 0.35, game, referenceGame);
+
+		for (int generation = 1; generation <= 50; generation++) {
+			game.tick();
+			referenceGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void tick_RuleSwitchedMidRunMatchesGame() {
+
+		Game referenceGame = new Game();
+		TestUtil.seedRandomSoup(37, 40, 40, 0.35, game, referenceGame);
+
+		for (int generation = 1; generation <= 50; generation++) {
+			if (generation == 20) {
+				referenceGame.setRule(Rule.HIGHLIFE);
+				game.setRule(Rule.HIGHLIFE);
+			}
+			game.tick();
+			referenceGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void reset_CellCountBackToZero() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.reset();
+		assertEquals(0, game.getPopulation());
+		assertEquals(0, game.getLiveCells().size());
+	}
+
+	@Test
+	public void getLiveCellsInRegion_ProbedOrPickedOut() {
+		TestUtil.seedRandomSoup(11, 30, 30, 0.3, game);
+		game.tick();
+		assertEquals("Small region, probed",
+				TestUtil.cellsIn(game.getLiveCells(), 4, 6, 5, 3), new HashSet<Cell>(game.getLiveCells(4, 6, 5, 3)));
+		assertEquals("Large region, picked out",
+				TestUtil.cellsIn(game.getLiveCells(), -10, 12, 1000, 1000), new HashSet<Cell>(game.getLiveCells(-10, 12, 1000, 1000)));
+		assertEquals("Region at the edge of the plane", 0, game.getLiveCells(Integer.MAX_VALUE, 0, 2, 2).size());
+	}
+}
@@ -0,0 +1,67 @@
+package com.uprr.game.gameoflife;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RuleTest {
+
+	@Test
+	public void conway_MatchesConwaysRules() {
+		for (int neighborCount = 0; neighborCount <= 8; neighborCount++) {
+			assertEquals("Born with "+neighborCount, neighborCount == 3, Rule.CONWAY.isBorn(neighborCount));
+			assertEquals("Survives with "+neighborCount, neighborCount == 2 || neighborCount == 3, Rule.CONWAY.survives(neighborCount));
+		}
+	}
+
+	@Test
+	public void parse_HighLifeBirthsWithSix() {
+		Rule highLife = Rule.parse("B36/S23");
+		assertTrue(highLife.isBorn(6));
+		assertFalse(highLife.survives(6));
+		assertTrue(highLife.isAliveNextGeneration(false, 3));
+		assertTrue(highLife.isAliveNextGeneration(true, 2));
+		assertFalse(highLife.isAliveNextGeneration(false, 2));
+		assertEquals(Rule.HIGHLIFE, highLife);
+	}
+
+	@Test
+	public void parse_OtherFormsGiveSameRule() {
+		assertEquals(Rule.CONWAY, Rule.parse("b3/s23"));
+		assertEquals(Rule.CONWAY, Rule.parse("S23/B3"));
+		assertEquals(Rule.CONWAY, Rule.parse("23/3"));
+		assertEquals(Rule.CONWAY.hashCode(), Rule.parse(" B3/S32 ").hashCode());
+	}
+
+	@Test
+	public void toString_IsCanonicalBSNotation() {
+		assertEquals("B3/S23", Rule.parse("s32/b3").toString());
+		assertEquals("B2/S", Rule.parse("B2/S").toString());
+	}
+
+	@Test
+	public void masks_HaveBitPerNeighborCount() {
+		assertEquals(1 << 3, Rule.CONWAY.getBirthMask());
+		assertEquals(1 << 2 | 1 << 3, Rule.CONWAY.getSurvivalMask());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parse_BirthWithoutNeighborsThrowsException() {
+		Rule.parse("B03/S23");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parse_NineNeighborsThrowsException() {
+		Rule.parse("B39/S23");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parse_MissingSlashThrowsException() {
+		Rule.parse("B3S23");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parse_NullThrowsException() {
+		Rule.parse(null);
+	}
+}
@@ -0,0 +1,96 @@
+package com.uprr.game.gameoflife;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TickMetricsTest {
+
+	private TickMetrics tickMetrics;
+
+	@Before
+	public void setUp() {
+		tickMetrics = new TickMetrics();
+	}
+
+	@Test
+	public void bucket_UpperBoundsContainValues() {
+		for (long nanos : new long[] { 0, 1, 7, 8, 15, 16, 17, 1000, 123456789, Long.MAX_VALUE }) {
+			int bucket = TickMetrics.bucket(nanos);
+			assertTrue("Upper bound of "+nanos, TickMetrics.bucketUpperBound(bucket) >= nanos);
+			if (bucket > 0)
+				assertTrue("Previous bucket of "+nanos, TickMetrics.bucketUpperBound(bucket - 1) < nanos);
+		}
+	}
+
+	@Test
+	public void record_PercentilesWithinBucketError() {
+
+		for (long nanos = 1; nanos <= 1000; nanos++)
+			tickMetrics.record(nanos * 1000, 10, 1, 2, 30);
+
+		assertEquals(1000, tickMetrics.getTickCount());
+		assertEquals(1000000, tickMetrics.getMaxTickNanos());
+		assertEquals(500500.0, tickMetrics.getMeanTickNanos(), 0.001);
+		assertEquals(500000, tickMetrics.getMedianTickNanos(), 500000 * 0.125);
+		assertEquals(990000, tickMetrics.getP99TickNanos(), 990000 * 0.125);
+		assertTrue(tickMetrics.getP99TickNanos() <= tickMetrics.getMaxTickNanos());
+		assertEquals(1000, tickMetrics.getTotalBirths());
+		assertEquals(2000, tickMetrics.getTotalDeaths());
+	}
+
+	@Test
+	public void record_UntrackedCountsReportedAsMinusOne() {
+		tickMetrics.record(100, 5, -1, -1, -1);
+		assertEquals(-1, tickMetrics.getBirths());
+		assertEquals(-1, tickMetrics.getCandidateCells());
+		assertEquals(0, tickMetrics.getTotalBirths());
+		assertEquals(5, tickMetrics.getPopulation());
+	}
+
+	@Test
+	public void reset_ClearsHistogram() {
+		tickMetrics.record(100, 5, 1, 1, 9);
+		tickMetrics.reset();
+		assertEquals(0, tickMetrics.getTickCount());
+		assertEquals(0, tickMetrics.getP99TickNanos());
+	}
+
+	@Test
+	public void register_ReadableThroughPlatformMBeanServer() throws Exception {
+
+		Game game = new Game();
+		game.bringCellToLife(new Cell(0, 0));
+		game.bringCellToLife(new Cell(1, 0));
+		game.bringCellToLife(new Cell(2, 0));
+		game.tick();
+
+		ObjectName objectName = game.getTickMetrics().register("TickMetricsTest");
+		try {
+			MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(1L, mBeanServer.getAttribute(objectName, "TickCount"));
+			assertEquals(3L, mBeanServer.getAttribute(objectName, "Population"));
+			assertEquals(2L, mBeanServer.getAttribute(objectName, "Births"));
+			mBeanServer.invoke(objectName, "reset", null, null);
+			assertEquals(0L, mBeanServer.getAttribute(objectName, "TickCount"));
+		} finally {
+			game.getTickMetrics().unregister();
+		}
+		assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void register_TwiceThrowsException() {
+		tickMetrics.register("TickMetricsTest-twice");
+		try {
+			tickMetrics.register("TickMetricsTest-again");
+		} finally {
+			tickMetrics.unregister();
+		}
+	}
+}
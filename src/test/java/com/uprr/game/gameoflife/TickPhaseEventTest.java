@@ -0,0 +1,82 @@
+package com.uprr.game.gameoflife;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class TickPhaseEventTest {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	/**
+	 * Ticks a blinker once under a recording with the phase events enabled
+	 */
+	private List<RecordedEvent> recordBlinkerTick(Game game) throws IOException {
+
+		game.bringCellToLife(new Cell(0, 0));
+		game.bringCellToLife(new Cell(1, 0));
+		game.bringCellToLife(new Cell(2, 0));
+
+		Path recordingFile = tempFolder.getRoot().toPath().resolve("tick.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(TickPhaseEvent.NAME).withoutThreshold();
+			recording.start();
+			game.tick();
+			recording.stop();
+			recording.dump(recordingFile);
+		}
+
+		List<RecordedEvent> phaseEvents = new ArrayList<RecordedEvent>();
+		for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile))
+			if (event.getEventType().getName().equals(TickPhaseEvent.NAME))
+				phaseEvents.add(event);
+		return phaseEvents;
+	}
+
+	private static RecordedEvent phaseEvent(List<RecordedEvent> phaseEvents, String phase) {
+		for (RecordedEvent event : phaseEvents)
+			if (event.getString("phase").equals(phase))
+				return event;
+		fail("No "+phase+" event in "+phaseEvents);
+		return null;
+	}
+
+	@Test
+	public void tick_EmitsEventPerPhase() throws IOException {
+
+		List<RecordedEvent> phaseEvents = recordBlinkerTick(new Game());
+
+		assertEquals(3, phaseEvents.size());
+		RecordedEvent countEvent = phaseEvent(phaseEvents, TickPhaseEvent.COUNT_NEIGHBORS);
+		assertEquals(0, countEvent.getLong("generation"));
+		assertEquals(3, countEvent.getLong("population"));
+		assertEquals(3, countEvent.getLong("cellsProcessed"));
+		assertEquals(12, phaseEvent(phaseEvents, TickPhaseEvent.SCAN_DEAD_NEIGHBORS).getLong("cellsProcessed"));
+		assertEquals(4, phaseEvent(phaseEvents, TickPhaseEvent.APPLY_CHANGES).getLong("cellsProcessed"));
+	}
+
+	@Test
+	public void tick_ActiveSetEmitsChangedNeighborhoodScan() throws IOException {
+		List<RecordedEvent> phaseEvents = recordBlinkerTick(new Game(Game.TickMode.ACTIVE_SET));
+		assertEquals(15, phaseEvent(phaseEvents, TickPhaseEvent.SCAN_CHANGED_NEIGHBORHOODS).getLong("cellsProcessed"));
+		phaseEvent(phaseEvents, TickPhaseEvent.APPLY_CHANGES);
+	}
+
+	@Test
+	public void tick_PackedGameEmitsEventPerPhase() throws IOException {
+		List<RecordedEvent> phaseEvents = recordBlinkerTick(new PackedGame());
+		assertEquals(3, phaseEvents.size());
+		assertEquals(12, phaseEvent(phaseEvents, TickPhaseEvent.SCAN_DEAD_NEIGHBORS).getLong("cellsProcessed"));
+	}
+}
@@ -0,0 +1,51 @@
+package com.uprr.game.gameoflife;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TileIndexTest {
+
+	@Test
+	public void addCellsIn_CellsAcrossTiles() {
+		TileIndex tileIndex = new TileIndex(Arrays.asList(new Cell(-1, -1), new Cell(31, 0), new Cell(32, 0), new Cell(100, 100)));
+
+		List<Cell> cellsInRegion = new ArrayList<Cell>();
+		tileIndex.addCellsIn(cellsInRegion, -1, -1, 32, 1);
+		assertEquals(new HashSet<Cell>(Arrays.asList(new Cell(-1, -1), new Cell(31, 0))), new HashSet<Cell>(cellsInRegion));
+
+		cellsInRegion.clear();
+		tileIndex.addCellsIn(cellsInRegion, 0, 0, 1000000, 1000000);
+		assertEquals("Region wider than the tiles", new HashSet<Cell>(Arrays.asList(new Cell(31, 0), new Cell(32, 0), new Cell(100, 100))),
+				new HashSet<Cell>(cellsInRegion));
+	}
+
+	@Test
+	public void addCellsIn_KeptUpCellByCell() {
+		TileIndex tileIndex = new TileIndex(Arrays.asList(new Cell(1, 1), new Cell(40, 1)));
+		tileIndex.remove(new Cell(1, 1));
+		tileIndex.remove(new Cell(2, 2));
+		tileIndex.add(new Cell(2, 2));
+		tileIndex.add(new Cell(-33, 1));
+
+		List<Cell> cellsInRegion = new ArrayList<Cell>();
+		tileIndex.addCellsIn(cellsInRegion, -100, -100, 100, 100);
+		assertEquals(new HashSet<Cell>(Arrays.asList(new Cell(2, 2), new Cell(40, 1), new Cell(-33, 1))), new HashSet<Cell>(cellsInRegion));
+
+		tileIndex.clear();
+		cellsInRegion.clear();
+		tileIndex.addCellsIn(cellsInRegion, -100, -100, 100, 100);
+		assertTrue(cellsInRegion.isEmpty());
+	}
+
+	@Test
+	public void addCellsIn_NoCells() {
+		List<Cell> cellsInRegion = new ArrayList<Cell>();
+		new TileIndex(new ArrayList<Cell>()).addCellsIn(cellsInRegion, 0, 0, 10, 10);
+		assertTrue(cellsInRegion.isEmpty());
+	}
+}
@@ -0,0 +1,154 @@
+package com.uprr.game.gameoflife;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class TiledGameTest {
+
+	private TiledGame game;
+
+	@Before
+	public void setUp() {
+		game = new TiledGame();
+	}
+
+	@Test
+	public void bringCellToLife_NegativeCoordsAllocateTile() {
+		game.bringCellToLife(new Cell(-1, -65));
+		assertTrue(game.isCellAlive(new Cell(-1, -65)));
+		assertFalse(game.isCellAlive(new Cell(63, -65)));
+		assertEquals(1, game.getTileCount());
+		assertEquals(new Cell(-1, -65), game.getLiveCells().get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bringCellToLife_AddToSameCoordThrowsException() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.bringCellToLife(new Cell(12, 34));
+	}
+
+	@Test
+	public void killCell_LastCellFreesTile() {
+		game.bringCellToLife(new Cell(100, 100));
+		game.killCell(new Cell(100, 100));
+		assertEquals(0, game.getTileCount());
+		assertEquals(0, game.getPopulation());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void killCell_DeadCellThrowsException() {
+		game.killCell(new Cell(23, 12));
+	}
+
+	@Test
+	public void getNeighborCountAndDeadCells_CountsAcrossTiles() {
+		game.bringCellToLife(new Cell(0, 0));
+		game.bringCellToLife(new Cell(-1, -1));
+		Set<Cell> deadNeighbors = new HashSet<Cell>();
+		assertEquals(1, game.getNeighborCountAndDeadCells(new Cell(0, 0), deadNeighbors));
+		assertEquals(7, deadNeighbors.size());
+	}
+
+	@Test
+	public void tick_BlinkerAcrossTileCornerOscillates() {
+		game.bringCellToLife(new Cell(-1, 0));
+		game.bringCellToLife(new Cell(0, 0));
+		game.bringCellToLife(new Cell(1, 0));
+
+		game.tick();
+
+		assertEquals("Population", 3, game.getPopulation());
+		assertTrue(game.isCellAlive(new Cell(0, -1)));
+		assertTrue(game.isCellAlive(new Cell(0, 1)));
+		assertEquals("Born", 2, game.getBornCells().size());
+		assertEquals("Killed", 2, game.getKilledCells().size());
+		assertTrue(game.getKilledCells().contains(new Cell(-1, 0)));
+	}
+
+	@Test
+	public void tick_GliderMovesIntoNewTilesAndFreesOldOnes() {
+		int[][] glider = { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} };
+		for (int[] cell : glider)
+			game.bringCellToLife(new Cell(cell[0], cell[1]));
+
+		for (int generation = 0; generation < 4*100; generation++)
+			game.tick();
+
+		assertEquals("Population", 5, game.getPopulation());
+		for (int[] cell : glider)
+			assertTrue(game.isCellAlive(new Cell(cell[0]+100, cell[1]+100)));
+		assertTrue("Tiles freed behind glider: "+game.getTileCount(), game.getTileCount() <= 4);
+	}
+
+	@Test
+	public void tick_RandomSoupAcrossTilesMatchesGame() {
+
+		Game referenceGame = new Game();
+		for (Game seeded : new Game[] { referenceGame, game }) {
+			Game soup = new Game();
+			TestUtil.seedRandomSoup(5, 90, 90, 0.35, soup);
+			for (Cell cell : soup.getLiveCells())
+				seeded.bringCellToLife(new Cell(cell.getX()-45, cell.getY()-20));
+		}
+
+		for (int generation = 1; generation <= 100; generation++) {
+			referenceGame.tick();
+			game.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+			assertEquals("Population "+generation, referenceGame.getPopulation(), game.getPopulation());
+			assertEquals("Born "+generation, new HashSet<Cell>(referenceGame.getBornCells()), new HashSet<Cell>(game.getBornCells()));
+			assertEquals("Killed "+generation, new HashSet<Cell>(referenceGame.getKilledCells()), new HashSet<Cell>(game.getKilledCells()));
+		}
+	}
+
+	@Test
+	public void tick_RuleSwitchedMidRunMatchesGame() {
+
+		Game referenceGame = new Game();
+		for (Game seeded : new Game[] { referenceGame, game }) {
+			Game soup = new Game();
+			TestUtil.seedRandomSoup(41, 90, 90, 0.35, soup);
+			for (Cell cell : soup.getLiveCells())
+				seeded.bringCellToLife(new Cell(cell.getX()-45, cell.getY()-20));
+		}
+
+		for (int generation = 1; generation <= 80; generation++) {
+			if (generation == 30) {
+				referenceGame.setRule(Rule.HIGHLIFE);
+				game.setRule(Rule.HIGHLIFE);
+			}
+			game.tick();
+			referenceGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void reset_CellCountBackToZero() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.reset();
+		assertEquals(0, game.getPopulation());
+		assertEquals(0, game.getTileCount());
+		assertEquals(0, game.getLiveCells().size());
+	}
+
+	@Test
+	public void getLiveCellsInRegion_AcrossTileBoundaries() {
+		TestUtil.seedRandomSoup(5, 150, 150, 0.2, game);
+		game.bringCellToLife(new Cell(-1, -65));
+		game.tick();
+		assertEquals("Few tiles",
+				TestUtil.cellsIn(game.getLiveCells(), 60, 60, 10, 70), new HashSet<Cell>(game.getLiveCells(60, 60, 10, 70)));
+		assertEquals("More tiles than allocated",
+				TestUtil.cellsIn(game.getLiveCells(), -5000, 3, 10000, 100), new HashSet<Cell>(game.getLiveCells(-5000, 3, 10000, 100)));
+		game.bringCellToLife(new Cell(-1, -65));
+		assertEquals(Arrays.asList(new Cell(-1, -65)), game.getLiveCells(-64, -128, 64, 64));
+	}
+}
@@ -0,0 +1,138 @@
+package com.uprr.game.gameoflife.cli;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.GenerationJournal;
+import com.uprr.game.gameoflife.io.RleReader;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private Path rPentomino;
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream(), err = new ByteArrayOutputStream();
+
+	@Before
+	public void setUp() throws IOException {
+		rPentomino = tempFolder.newFile("r-pentomino.rle").toPath();
+		Files.write(rPentomino, "x = 3, y = 3, rule = B3/S23\nb2o$2ob$bo!\n".getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private int run(String... args) {
+		return BatchRunner.run(args, new PrintStream(out, true), new PrintStream(err, true));
+	}
+
+	private String output() {
+		return new String(out.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void run_PrintsGenerationsAndPopulation() {
+
+		assertEquals(BatchRunner.EXIT_OK, run("--generations", "50", rPentomino.toString()));
+
+		assertTrue(output(), output().contains("Engine:      PackedGame (B3/S23)"));
+		assertTrue(output(), output().contains("Generations: 50 (now at generation 50)"));
+		assertTrue(output(), output().contains("generations/s"));
+		assertTrue(output(), output().contains("Step time:   p50 "));
+	}
+
+	@Test
+	public void run_EnginesAgreeOnPopulation() throws IOException {
+
+		String population = null;
+		for (String engine : new String[] { "game", "packed", "tiled", "hashlife" }) {
+			out.reset();
+			assertEquals(engine, BatchRunner.EXIT_OK, run("--engine", engine, "--generations", "200", rPentomino.toString()));
+			String populationLine = output().replaceAll("(?s).*(Population: +\\d+).*", "$1");
+			if (population == null)
+				population = populationLine;
+			assertEquals(engine, population, populationLine);
+		}
+	}
+
+	@Test
+	public void run_HashLifeJumpsToExactGeneration() {
+		assertEquals(BatchRunner.EXIT_OK, run("--engine", "hashlife", "--jump", "8", "--generations", "1103", rPentomino.toString()));
+		assertTrue(output(), output().contains("now at generation 1103"));
+		assertTrue(output(), output().contains("Population:  116"));
+	}
+
+	@Test
+	public void run_StopOnCycleStopsSettledPattern() throws IOException {
+
+		Path blinker = tempFolder.newFile("blinker.rle").toPath();
+		Files.write(blinker, "x = 3, y = 1\n3o!\n".getBytes(StandardCharsets.US_ASCII));
+
+		assertEquals(BatchRunner.EXIT_OK, run("--stop-on-cycle", "--generations", "1000", blinker.toString()));
+		assertTrue(output(), output().contains("Generations: 2 "));
+		assertTrue(output(), output().contains("Stopped:     cycle of period 2 from generation 0"));
+	}
+
+	@Test
+	public void run_JournalAndOutFileWritten() throws IOException {
+
+		Path journalFile = tempFolder.getRoot().toPath().resolve("run.journal");
+		Path outFile = tempFolder.getRoot().toPath().resolve("final.rle");
+		assertEquals(BatchRunner.EXIT_OK, run("--generations", "30", "--journal", journalFile.toString(),
+				"--out", outFile.toString(), rPentomino.toString()));
+
+		Game restored = new Game();
+		assertEquals(30, GenerationJournal.restore(journalFile, 30, restored));
+		Game saved = new Game();
+		RleReader.read(outFile, saved);
+		assertEquals(restored.getLiveCells().size(), saved.getLiveCells().size());
+	}
+
+	@Test
+	public void run_SnapshotPatternKeepsGeneration() throws IOException {
+
+		Path snapshotFile = tempFolder.getRoot().toPath().resolve("universe.snapshot");
+		Game game = new Game();
+		game.bringCellToLife(new Cell(0, 0));
+		game.tick();
+		game.save(snapshotFile);
+
+		assertEquals(BatchRunner.EXIT_OK, run("--generations", "5", snapshotFile.toString()));
+		assertTrue(output(), output().contains("Generations: 5 (now at generation 6)"));
+	}
+
+	@Test
+	public void run_BadArgumentsPrintUsage() {
+		assertEquals(BatchRunner.EXIT_USAGE, run("--engine", "warp", rPentomino.toString()));
+		assertEquals(BatchRunner.EXIT_USAGE, run("--generations", "many", rPentomino.toString()));
+		assertEquals(BatchRunner.EXIT_USAGE, run("--tick-mode", "parallel", rPentomino.toString()));
+		assertEquals(BatchRunner.EXIT_USAGE, run("--engine", "hashlife", "--jump", "61", rPentomino.toString()));
+		assertEquals(BatchRunner.EXIT_USAGE, run("--engine", "bitboard", "--torus", "100x100", rPentomino.toString()));
+		assertEquals(BatchRunner.EXIT_USAGE, run());
+		assertTrue(new String(err.toByteArray(), StandardCharsets.UTF_8).contains("Usage: BatchRunner"));
+	}
+
+	@Test
+	public void run_FailureWhileRunningIsntUsage() {
+		// valid arguments, but more words than a heap bitboard can hold
+		assertEquals(BatchRunner.EXIT_FAILED, run("--engine", "bitboard", "--torus", "2147483584x2147483647", rPentomino.toString()));
+		String errors = new String(err.toByteArray(), StandardCharsets.UTF_8);
+		assertTrue(errors, errors.startsWith("Run failed: Too many words"));
+		assertFalse(errors, errors.contains("Usage: BatchRunner"));
+	}
+
+	@Test
+	public void run_MissingPatternFails() {
+		assertEquals(BatchRunner.EXIT_FAILED, run(tempFolder.getRoot().toPath().resolve("missing.rle").toString()));
+	}
+}
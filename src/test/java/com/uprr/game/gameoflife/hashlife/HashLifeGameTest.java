@@ -0,0 +1,245 @@
+package com.uprr.game.gameoflife.hashlife;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class HashLifeGameTest {
+
+	private HashLifeGame game;
+
+	@Before
+	public void setUp() {
+		game = new HashLifeGame();
+	}
+
+	private void bringCellsToLife(Game game, int[][] cells) {
+		for (int[] cell : cells)
+			game.bringCellToLife(new Cell(cell[0], cell[1]));
+	}
+
+	@Test
+	public void bringCellToLife_FarCellExpandsRoot() {
+		game.bringCellToLife(new Cell(-100000, 250000));
+		assertTrue(game.isCellAlive(new Cell(-100000, 250000)));
+		assertFalse(game.isCellAlive(new Cell(-100000, 250001)));
+		assertEquals(1, game.getPopulation());
+		assertEquals(new Cell(-100000, 250000), game.getLiveCells().get(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bringCellToLife_AddToSameCoordThrowsException() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.bringCellToLife(new Cell(12, 34));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void killCell_DeadCellThrowsException() {
+		game.killCell(new Cell(23, 12));
+	}
+
+	@Test
+	public void killCell_SharesEmptyNodes() {
+		game.bringCellToLife(new Cell(5, 5));
+		game.killCell(new Cell(5, 5));
+		assertSame(game.getNodeFactory().empty(game.getRoot().getLevel()), game.getRoot());
+	}
+
+	@Test
+	public void getNeighborCountAndDeadCells_CountsLiveNeighbors() {
+		game.bringCellToLife(new Cell(0, 0));
+		game.bringCellToLife(new Cell(-1, -1));
+		Set<Cell> deadNeighbors = new HashSet<Cell>();
+		assertEquals(1, game.getNeighborCountAndDeadCells(new Cell(0, 0), deadNeighbors));
+		assertEquals(7, deadNeighbors.size());
+	}
+
+	@Test
+	public void tick_BlinkerReportsBornAndKilledCells() {
+		bringCellsToLife(game, new int[][] { {-1, 0}, {0, 0}, {1, 0} });
+
+		game.tick();
+
+		assertEquals("Population", 3, game.getPopulation());
+		assertTrue(game.isCellAlive(new Cell(0, -1)));
+		assertTrue(game.isCellAlive(new Cell(0, 1)));
+		assertEquals("Born", new HashSet<Cell>(Arrays.asList(new Cell(0, -1), new Cell(0, 1))),
+				new HashSet<Cell>(game.getBornCells()));
+		assertEquals("Killed", new HashSet<Cell>(Arrays.asList(new Cell(-1, 0), new Cell(1, 0))),
+				new HashSet<Cell>(game.getKilledCells()));
+	}
+
+	@Test
+	public void tick_RandomSoupMatchesGame() {
+
+		Game referenceGame = new Game();
+		TestUtil.seedRandomSoup(9, 40, 40, 0.35, game, referenceGame);
+
+		for (int generation = 1; generation <= 60; generation++) {
+			game.tick();
+			referenceGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_MatchesRepeatedTicks() {
+
+		Game referenceGame = new Game();
+		TestUtil.seedRandomSoup(13, 32, 32, 0.4, game, referenceGame);
+
+		for (int log2Generations = 0; log2Generations <= 6; log2Generations++) {
+			referenceGame.advanceByPowerOfTwo(log2Generations);
+			game.advanceByPowerOfTwo(log2Generations);
+			assertEquals("After 2^"+log2Generations, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_GliderTravelsFar() {
+		int[][] glider = { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} };
+		bringCellsToLife(game, glider);
+
+		game.advanceByPowerOfTwo(20);	// a glider moves one cell diagonally per 4 generations
+
+		assertEquals("Population", 5, game.getPopulation());
+		for (int[] cell : glider)
+			assertTrue(game.isCellAlive(new Cell(cell[0] + (1 << 18), cell[1] + (1 << 18))));
+		assertEquals("Born", 5, game.getBornCells().size());
+		assertEquals("Killed", 5, game.getKilledCells().size());
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_GliderPastIntRangeCantBeListed() {
+		bringCellsToLife(game, new int[][] { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} });
+
+		game.advanceByPowerOfTwo(33);	// 2^31 cells diagonally
+
+		assertEquals("Population", 5, game.getPopulation());
+		assertFalse("Not wrapped back onto the plane", game.isCellAlive(new Cell(Integer.MIN_VALUE + 1, Integer.MIN_VALUE)));
+		try {
+			game.getLiveCells();
+			fail("Cells listed past the int range");
+		} catch (ArithmeticException ae) {
+		}
+		try {
+			game.getBornCells();
+			fail("Born cells listed past the int range");
+		} catch (ArithmeticException ae) {
+		}
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_RPentominoSettlesAt116Cells() {
+		bringCellsToLife(game, new int[][] { {1, 0}, {2, 0}, {0, 1}, {1, 1}, {1, 2} });
+		game.advanceByPowerOfTwo(11);	// stabilizes at generation 1103
+		assertEquals(116, game.getPopulation());
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_ChangesCoverWholeJump() {
+		game.tick();
+		game.advanceByPowerOfTwo(3);
+		assertEquals(9, game.getGeneration());
+		assertEquals(1, game.getChangesFromGeneration());
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_MaximumJumpKeepsBlockAlive() {
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {0, 1}, {1, 1} });
+		game.advanceByPowerOfTwo(Game.MAX_LOG2_GENERATIONS);
+		assertEquals(1L << Game.MAX_LOG2_GENERATIONS, game.getGeneration());
+		assertEquals(4, game.getPopulation());
+		assertTrue(game.isCellAlive(new Cell(0, 0)));
+		assertTrue(game.isCellAlive(new Cell(1, 1)));
+		game.advanceByPowerOfTwo(Game.MAX_LOG2_GENERATIONS);
+		assertTrue("Still alive after a second maximum jump", game.isCellAlive(new Cell(1, 0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void advanceByPowerOfTwo_PastMaximumThrowsException() {
+		bringCellsToLife(game, new int[][] { {0, 0}, {1, 0}, {0, 1}, {1, 1} });
+		game.advanceByPowerOfTwo(Game.MAX_LOG2_GENERATIONS + 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void advanceByPowerOfTwo_NegativePowerThrowsException() {
+		game.advanceByPowerOfTwo(-1);
+	}
+
+	@Test
+	public void advanceByPowerOfTwo_SmallNodeCacheStillCorrect() {
+
+		HashLifeGame smallCacheGame = new HashLifeGame(100);
+		bringCellsToLife(game, new int[][] { {1, 0}, {2, 0}, {0, 1}, {1, 1}, {1, 2} });
+		bringCellsToLife(smallCacheGame, new int[][] { {1, 0}, {2, 0}, {0, 1}, {1, 1}, {1, 2} });
+
+		for (int step = 0; step < 20; step++) {
+			game.advanceByPowerOfTwo(3);
+			smallCacheGame.advanceByPowerOfTwo(3);
+		}
+		assertEquals(TestUtil.liveCellSet(game), TestUtil.liveCellSet(smallCacheGame));
+	}
+
+	@Test
+	public void setRoot_TreeFromOwnFactoryIsLoaded() {
+		NodeFactory nodeFactory = game.getNodeFactory();
+		Node dead = nodeFactory.leaf(false), alive = nodeFactory.leaf(true);
+		game.setRoot(nodeFactory.node(dead, dead, dead, alive));
+		assertEquals(1, game.getPopulation());
+		assertTrue(game.isCellAlive(new Cell(0, 0)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setRoot_TreeFromOtherFactoryThrowsException() {
+		NodeFactory otherFactory = new NodeFactory();
+		game.setRoot(otherFactory.node(otherFactory.empty(2), otherFactory.empty(2), otherFactory.empty(2), otherFactory.empty(2)));
+	}
+
+	@Test
+	public void tick_RuleSwitchedMidRunMatchesGame() {
+
+		Game referenceGame = new Game();
+		TestUtil.seedRandomSoup(43, 40, 40, 0.35, game, referenceGame);
+
+		for (int generation = 1; generation <= 60; generation++) {
+			if (generation == 20) {
+				referenceGame.setRule(Rule.HIGHLIFE);
+				game.setRule(Rule.HIGHLIFE);
+			}
+			game.tick();
+			referenceGame.tick();
+			assertEquals("Generation "+generation, TestUtil.liveCellSet(referenceGame), TestUtil.liveCellSet(game));
+		}
+	}
+
+	@Test
+	public void reset_CellCountBackToZero() {
+		game.bringCellToLife(new Cell(12, 34));
+		game.reset();
+		assertEquals(0, game.getPopulation());
+		assertEquals(0, game.getLiveCells().size());
+	}
+
+	@Test
+	public void getLiveCellsInRegion_OnlyOverlappingNodes() {
+		TestUtil.seedRandomSoup(9, 60, 60, 0.3, game);
+		game.bringCellToLife(new Cell(-100000, 250000));
+		game.advanceByPowerOfTwo(3);
+		assertEquals("Part of the soup",
+				TestUtil.cellsIn(game.getLiveCells(), 13, -2, 17, 40), new HashSet<Cell>(game.getLiveCells(13, -2, 17, 40)));
+		assertEquals("Whole root and beyond",
+				TestUtil.cellsIn(game.getLiveCells(), -300000, -300000, 600000, 600000),
+				new HashSet<Cell>(game.getLiveCells(-300000, -300000, 600000, 600000)));
+		assertEquals("Empty corner", 0, game.getLiveCells(-1000, -1000, 10, 10).size());
+	}
+}
@@ -0,0 +1,139 @@
+package com.uprr.game.gameoflife.io;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class MacrocellReaderTest {
+
+	// glider in the top left of a level 3 root, whose corner is (-4, -4)
+	private static final String GLIDER = "[M2] (golly 2.0)\n#R B3/S23\n#G 12\n.*$..*$***$\n";
+
+	private Game game;
+
+	@Before
+	public void setUp() {
+		game = new Game();
+	}
+
+	private static MacrocellReader read(String macrocell, Game game) throws IOException {
+		MacrocellReader macrocellReader = new MacrocellReader(new StringReader(macrocell));
+		macrocellReader.read(game);
+		return macrocellReader;
+	}
+
+	private static Set<Cell> glider(int left, int top) {
+		Set<Cell> glider = new HashSet<Cell>();
+		glider.add(new Cell(left + 1, top));
+		glider.add(new Cell(left + 2, top + 1));
+		glider.add(new Cell(left, top + 2));
+		glider.add(new Cell(left + 1, top + 2));
+		glider.add(new Cell(left + 2, top + 2));
+		return glider;
+	}
+
+	@Test
+	public void read_GliderLeafCenteredOnOrigin() throws IOException {
+
+		MacrocellReader macrocellReader = read(GLIDER, game);
+
+		assertEquals(glider(-4, -4), TestUtil.liveCellSet(game));
+		assertEquals(Rule.CONWAY, macrocellReader.getRule());
+		assertEquals(12, macrocellReader.getGeneration());
+		assertEquals("Generation applied", 12, game.getGeneration());
+	}
+
+	@Test
+	public void read_ReplacesExistingCells() throws IOException {
+		game.bringCellToLife(new Cell(100, 100));
+		read(GLIDER, game);
+		assertFalse(game.isCellAlive(new Cell(100, 100)));
+		assertEquals(5, game.getLiveCells().size());
+	}
+
+	@Test
+	public void read_SharedNodesAndEmptyChildren() throws IOException {
+
+		// level 4 root (corner -8, -8) with the glider leaf in its NE and SW quadrants
+		read("[M2]\n#R B36/S23\n.*$..*$***$\n4 0 1 1 0\n", game);
+
+		Set<Cell> expected = glider(0, -8);
+		expected.addAll(glider(-8, 0));
+		assertEquals(expected, TestUtil.liveCellSet(game));
+		assertEquals(Rule.HIGHLIFE, game.getRule());
+	}
+
+	@Test
+	public void read_HashLifeGameTakesTreeWithoutExpanding() throws IOException {
+
+		// a level 30 square tiled with 2^54 gliders, one node per level
+		StringBuilder macrocell = new StringBuilder("[M2]\n.*$..*$***$\n");
+		for (int level = 4; level <= 30; level++)
+			macrocell.append(level).append(' ').append(level - 3).append(' ').append(level - 3)
+				.append(' ').append(level - 3).append(' ').append(level - 3).append('\n');
+		HashLifeGame hashLifeGame = new HashLifeGame();
+		read(macrocell.toString(), hashLifeGame);
+
+		assertEquals(5L << 54, hashLifeGame.getPopulation());
+		assertEquals(30, hashLifeGame.getRoot().getLevel());
+		assertTrue(hashLifeGame.isCellAlive(new Cell(-(1 << 29) + 1, -(1 << 29))));
+		assertFalse(hashLifeGame.isCellAlive(new Cell(-(1 << 29), -(1 << 29))));
+	}
+
+	@Test
+	public void read_UnsupportedRuleLeavesGameRule() throws IOException {
+		MacrocellReader macrocellReader = read("[M2]\n#R B3/S23:T10,10\n*$\n", game);
+		assertNull(macrocellReader.getRule());
+		assertEquals("B3/S23:T10,10", macrocellReader.getRuleNotation());
+		assertEquals(1, game.getLiveCells().size());
+	}
+
+	@Test
+	public void read_NoNodesGivesEmptyGame() throws IOException {
+		read("[M2]\n#R B3/S23\n", game);
+		assertEquals(0, game.getLiveCells().size());
+	}
+
+	@Test(expected = IOException.class)
+	public void read_MissingHeaderThrowsException() throws IOException {
+		read(".*$\n", game);
+	}
+
+	@Test(expected = IOException.class)
+	public void read_ForwardReferenceThrowsException() throws IOException {
+		read("[M2]\n*$\n4 1 2 0 0\n", game);
+	}
+
+	@Test(expected = IOException.class)
+	public void read_ChildLevelMismatchThrowsException() throws IOException {
+		read("[M2]\n*$\n5 1 0 0 0\n", game);
+	}
+
+	@Test(expected = IOException.class)
+	public void read_OversizedLeafThrowsException() throws IOException {
+		read("[M2]\n.........*$\n", game);
+	}
+
+	@Test(expected = IOException.class)
+	public void read_PatternPastEdgeOfPlaneThrowsException() throws IOException {
+		read("[M2]\n*$\n" + levels(4, 40), game);
+	}
+
+	private static String levels(int fromLevel, int toLevel) {
+		StringBuilder macrocell = new StringBuilder();
+		for (int level = fromLevel; level <= toLevel; level++)
+			macrocell.append(level).append(' ').append(level - 3).append(" 0 0 0\n");
+		return macrocell.toString();
+	}
+}
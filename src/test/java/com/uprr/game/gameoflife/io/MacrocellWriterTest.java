@@ -0,0 +1,103 @@
+package com.uprr.game.gameoflife.io;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.PackedGame;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.hashlife.HashLifeGame;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class MacrocellWriterTest {
+
+	private Game game;
+
+	@Before
+	public void setUp() {
+		game = new Game();
+	}
+
+	private static String write(Game game) throws IOException {
+		StringWriter macrocell = new StringWriter();
+		new MacrocellWriter(macrocell).write(game);
+		return macrocell.toString();
+	}
+
+	@Test
+	public void write_GliderLeaf() throws IOException {
+
+		int[][] glider = { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} };
+		for (int[] cell : glider)
+			game.bringCellToLife(new Cell(cell[0]-4, cell[1]-4));
+
+		assertEquals("[M2] (gameoflife)\n#R B3/S23\n.*$..*$***$\n", write(game));
+	}
+
+	@Test
+	public void write_EmptyRowsAndGeneration() throws IOException {
+
+		game.setRule(Rule.HIGHLIFE);
+		game.bringCellToLife(new Cell(-1, -2));
+		game.tick();
+		game.bringCellToLife(new Cell(4, 2));
+
+		assertEquals("[M2] (gameoflife)\n#R B36/S23\n#G 1\n$$....*$\n4 0 0 0 1\n", write(game));
+	}
+
+	@Test
+	public void write_RepeatedRegionsWrittenOnce() throws IOException {
+
+		// 64 blocks, 16 apart: one leaf and one node per level above it
+		for (int x = 0; x < 8; x++)
+			for (int y = 0; y < 8; y++) {
+				game.bringCellToLife(new Cell(16*x, 16*y));
+				game.bringCellToLife(new Cell(16*x + 1, 16*y));
+				game.bringCellToLife(new Cell(16*x, 16*y + 1));
+				game.bringCellToLife(new Cell(16*x + 1, 16*y + 1));
+			}
+
+		String macrocell = write(game);
+		assertEquals("Header and node lines", 2 + 6, macrocell.split("\n").length);
+
+		Game readBack = new Game();
+		new MacrocellReader(new StringReader(macrocell)).read(readBack);
+		assertEquals(TestUtil.liveCellSet(game), TestUtil.liveCellSet(readBack));
+	}
+
+	@Test
+	public void write_RandomSoupRoundTripsThroughEveryEngine() throws IOException {
+
+		PackedGame packedGame = new PackedGame();
+		TestUtil.seedRandomSoup(16, 150, 90, 0.35, packedGame);
+		String macrocell = write(packedGame);
+
+		HashLifeGame hashLifeGame = new HashLifeGame();
+		new MacrocellReader(new StringReader(macrocell)).read(hashLifeGame);
+		assertEquals(TestUtil.liveCellSet(packedGame), TestUtil.liveCellSet(hashLifeGame));
+		assertEquals("HashLife tree written as it stands", macrocell, write(hashLifeGame));
+	}
+
+	@Test
+	public void write_GenerationReadBack() throws IOException {
+
+		game.bringCellToLife(new Cell(4, 5));
+		game.bringCellToLife(new Cell(5, 5));
+		game.bringCellToLife(new Cell(6, 5));
+		game.tick();
+		game.tick();
+		game.tick();
+
+		for (Game readGame : new Game[] { new Game(), new HashLifeGame() }) {
+			new MacrocellReader(new StringReader(write(game))).read(readGame);
+			assertEquals(readGame.getClass().getSimpleName(), 3, readGame.getGeneration());
+			assertEquals(TestUtil.liveCellSet(game), TestUtil.liveCellSet(readGame));
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.uprr.game.gameoflife.io;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.PackedGame;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class RleReaderTest {
+
+	private static final String GLIDER = "#N Glider\n#C A comment\nx = 3, y = 3, rule = B3/S23\nbo$2bo$3o!\n";
+
+	private Game game;
+
+	@Before
+	public void setUp() {
+		game = new Game();
+	}
+
+	private static RleReader read(String rle, Game game, int left, int top) throws IOException {
+		RleReader rleReader = new RleReader(new StringReader(rle));
+		rleReader.read(game, left, top);
+		return rleReader;
+	}
+
+	@Test
+	public void read_GliderCellsAndHeader() throws IOException {
+
+		RleReader rleReader = read(GLIDER, game, 0, 0);
+
+		Set<Cell> glider = new HashSet<Cell>();
+		glider.add(new Cell(1, 0));
+		glider.add(new Cell(2, 1));
+		glider.add(new Cell(0, 2));
+		glider.add(new Cell(1, 2));
+		glider.add(new Cell(2, 2));
+		assertEquals(glider, TestUtil.liveCellSet(game));
+		assertEquals("Glider", rleReader.getName());
+		assertEquals(3, rleReader.getWidth());
+		assertEquals(3, rleReader.getHeight());
+		assertEquals(Rule.CONWAY, rleReader.getRule());
+	}
+
+	@Test
+	public void read_OffsetAndMultiRowRuns() throws IOException {
+
+		read("x = 4, y = 5\n2o2b\n$3$o\n2bo!3o", game, -10, 20);
+
+		assertEquals("Cell count", 4, game.getLiveCells().size());
+		assertTrue(game.isCellAlive(new Cell(-10, 20)));
+		assertTrue(game.isCellAlive(new Cell(-9, 20)));
+		assertTrue("Row after blank rows", game.isCellAlive(new Cell(-10, 24)));
+		assertTrue("Run split over lines", game.isCellAlive(new Cell(-7, 24)));
+		assertFalse("Cells after ! are ignored", game.isCellAlive(new Cell(-6, 24)));
+	}
+
+	@Test
+	public void read_RunCountSplitFromTagByLineBreak() throws IOException {
+
+		read("x = 14, y = 1\n12\nb2\r\no!", game, 0, 0);
+
+		assertEquals("Cell count", 2, game.getLiveCells().size());
+		assertTrue(game.isCellAlive(new Cell(12, 0)));
+		assertTrue(game.isCellAlive(new Cell(13, 0)));
+	}
+
+	@Test
+	public void read_RuleLineSetsGameRule() throws IOException {
+		RleReader rleReader = read("x = 1, y = 1, rule = B36/S23\no!", game, 0, 0);
+		assertEquals(Rule.HIGHLIFE, game.getRule());
+		assertEquals("B36/S23", rleReader.getRuleNotation());
+	}
+
+	@Test
+	public void read_UnsupportedRuleLeavesGameRule() throws IOException {
+		RleReader rleReader = read("x = 1, y = 1, rule = B3/S23:T100,100\no!", game, 0, 0);
+		assertNull(rleReader.getRule());
+		assertEquals(Rule.CONWAY, game.getRule());
+		assertEquals(1, game.getLiveCells().size());
+	}
+
+	@Test
+	public void read_LargePatternLoadsInBatches() throws IOException {
+
+		StringBuilder rle = new StringBuilder("x = 10000, y = 3\n");
+		rle.append("10000o$b9998ob$10000o!");
+		PackedGame packedGame = new PackedGame();
+		read(rle.toString(), packedGame, 0, 0);
+
+		assertEquals(29998, packedGame.getPopulation());
+		assertTrue(packedGame.isCellAlive(new Cell(9999, 2)));
+		assertFalse(packedGame.isCellAlive(new Cell(0, 1)));
+	}
+
+	@Test(expected = IOException.class)
+	public void read_MissingHeaderThrowsException() throws IOException {
+		read("#N Nothing here\n", game, 0, 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void read_MissingEndThrowsException() throws IOException {
+		read("x = 3, y = 1\n3o", game, 0, 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void read_MultiStateCellThrowsException() throws IOException {
+		read("x = 2, y = 1, rule = Generations\noB!", game, 0, 0);
+	}
+}
@@ -0,0 +1,68 @@
+package com.uprr.game.gameoflife.io;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
+import com.uprr.game.gameoflife.Rule;
+import com.uprr.game.gameoflife.test.TestUtil;
+
+import static org.junit.Assert.*;
+
+public class RleWriterTest {
+
+	private Game game;
+
+	@Before
+	public void setUp() {
+		game = new Game();
+	}
+
+	private String write(Game game, String name) throws IOException {
+		StringWriter rle = new StringWriter();
+		new RleWriter(rle).write(game, name);
+		return rle.toString();
+	}
+
+	@Test
+	public void write_GliderInStandardForm() throws IOException {
+
+		int[][] glider = { {1, 0}, {2, 1}, {0, 2}, {1, 2}, {2, 2} };
+		for (int[] cell : glider)
+			game.bringCellToLife(new Cell(cell[0]+5, cell[1]-7));
+
+		assertEquals("#N Glider\nx = 3, y = 3, rule = B3/S23\nbo$2bo$3o!\n", write(game, "Glider"));
+	}
+
+	@Test
+	public void write_EmptyGame() throws IOException {
+		assertEquals("x = 0, y = 0, rule = B3/S23\n!\n", write(game, null));
+	}
+
+	@Test
+	public void write_LongLinesWrapAt70() throws IOException {
+
+		TestUtil.seedRandomSoup(73, 200, 20, 0.5, game);
+
+		for (String line : write(game, null).split("\n"))
+			assertTrue("Line length "+line.length(), line.length() <= RleWriter.MAX_LINE_LENGTH);
+	}
+
+	@Test
+	public void write_ReadBackGivesSameCellsAndRule() throws IOException {
+
+		TestUtil.seedRandomSoup(79, 120, 60, 0.3, game);
+		game.bringCellToLife(new Cell(-40, -90));
+		game.setRule(Rule.HIGHLIFE);
+
+		Game readGame = new Game();
+		new RleReader(new StringReader(write(game, null))).read(readGame, -40, -90);
+
+		assertEquals(TestUtil.liveCellSet(game), TestUtil.liveCellSet(readGame));
+		assertEquals(Rule.HIGHLIFE, readGame.getRule());
+	}
+}
@@ -1,6 +1,13 @@
 package com.uprr.game.gameoflife.test;
 
 import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import com.uprr.game.gameoflife.Cell;
+import com.uprr.game.gameoflife.Game;
 
 public final class TestUtil {
 	
@@ -33,4 +40,33 @@ public final class TestUtil {
 	
 		return fieldValue;
 	}		
+
+	/**
+	 * Seeds the games with the same random soup in a width x height box at the origin
+	 */
+	public static void seedRandomSoup(long seed, int width, int height, double density, Game... games) {
+		
+		Random random = new Random(seed);
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				if (random.nextDouble() < density)
+					for (Game game : games)
+						game.bringCellToLife(new Cell(x, y));
+	}
+	
+	public static Set<Cell> liveCellSet(Game game) {
+		return new HashSet<Cell>(game.getLiveCells());
+	}
+	
+	/**
+	 * The cells in the region, picked out one by one (to check region queries against)
+	 */
+	public static Set<Cell> cellsIn(Collection<Cell> cells, int left, int top, int width, int height) {
+		
+		Set<Cell> cellsInRegion = new HashSet<Cell>();
+		for (Cell cell : cells)
+			if (cell.getX() >= left && cell.getX() < (long)left + width && cell.getY() >= top && cell.getY() < (long)top + height)
+				cellsInRegion.add(cell);
+		return cellsInRegion;
+	}
 }
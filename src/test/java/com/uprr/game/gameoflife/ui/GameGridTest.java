@@ -16,6 +16,9 @@ import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -364,6 +367,20 @@ public class GameGridTest {
 		assertEquals("Game spy tick count", 1, gameSpy.tickCounter);	
 	}	
 
+	@Test
+	public void advance_gameTickedWithoutDrawing() {
+		
+		gameSpy.bringCellToLife(new Cell(4, 5));
+		gameSpy.bringCellToLife(new Cell(5, 5));
+		gameSpy.bringCellToLife(new Cell(6, 5));
+		gameGrid.advance();
+		
+		assertEquals("Game spy tick count", 1, gameSpy.tickCounter);
+		assertTrue("Blinker turned", gameSpy.isCellAlive(new Cell(5, 4)));
+		assertEquals("Filled cell count", 0, gameGrid.filledCells.size());
+		assertEquals("Cleared cell count", 0, gameGrid.clearedCells.size());
+	}
+	
 	@Test
 	public void doTick_threeVisibleCellsInLineRedrawn() throws Exception {
 		
@@ -419,6 +436,82 @@ public class GameGridTest {
 		
 	}
 	
+	@Test
+	public void renderFrame_rasterHasGridlinesAndVisibleLiveCells() {
+		
+		final int BLACK_RGB = 0xff000000, WHITE_RGB = 0xffffffff;
+		gameSpy.bringCellToLife(new Cell(2, 3));
+		gameSpy.bringCellToLife(new Cell(GRID_WIDTH+5, 3));	// off screen
+		gameGrid.setRenderMode(GameGrid.RenderMode.RASTER);
+		
+		assertEquals("Visible cells drawn", 1, gameGrid.renderFrame());
+		BufferedImage frame = gameGrid.getFrame();
+		
+		assertEquals("Frame width", GRID_WIDTH*CELL_SIZE, frame.getWidth());
+		assertEquals("Vertical gridline", BLACK_RGB, frame.getRGB(CELL_SIZE, 5));
+		assertEquals("Horizontal gridline", BLACK_RGB, frame.getRGB(5, CELL_SIZE));
+		assertEquals("Dead cell interior", WHITE_RGB, frame.getRGB(5, 5));
+		assertEquals("Live cell interior", BLACK_RGB, frame.getRGB(2*CELL_SIZE+5, 3*CELL_SIZE+5));
+		assertEquals("Grid width from gridlines", GRID_WIDTH, gameGrid.getGridWidth());
+		assertEquals("No per-cell Graphics calls", 0, gameGrid.filledCells.size());
+	}
+	
+	@Test
+	public void renderFrame_publishedGenerationDrawnWithoutGameLock() throws Exception {
+		
+		final int BLACK_RGB = 0xff000000;
+		gameSpy.bringCellToLife(new Cell(4, 5));
+		gameSpy.bringCellToLife(new Cell(5, 5));
+		gameSpy.bringCellToLife(new Cell(6, 5));
+		gameGrid.setRenderMode(GameGrid.RenderMode.RASTER);
+		gameGrid.advance();
+		
+		// a tick that holds the lock until the frame is drawn
+		final CountDownLatch isLocked = new CountDownLatch(1), isDrawn = new CountDownLatch(1);
+		Thread ticker = new Thread(() -> {
+			synchronized (gameSpy) {
+				isLocked.countDown();
+				try {
+					isDrawn.await();
+				} catch (InterruptedException ie) {
+				}
+			}
+		});
+		ticker.start();
+		isLocked.await();
+		
+		FutureTask<Integer> frameDrawer = new FutureTask<Integer>(() -> gameGrid.renderFrame());
+		new Thread(frameDrawer).start();
+		try {
+			assertEquals("Visible cells drawn", 3, (int)frameDrawer.get(5, TimeUnit.SECONDS));
+		} finally {
+			isDrawn.countDown();
+			ticker.join();
+		}
+		assertEquals("Blinker turned", BLACK_RGB, gameGrid.getFrame().getRGB(5*CELL_SIZE+5, 4*CELL_SIZE+5));
+	}
+	
+	@Test
+	public void doTick_rasterModeRedrawsFrameWithoutPerCellCalls() {
+		
+		final int BLACK_RGB = 0xff000000, WHITE_RGB = 0xffffffff;
+		gameSpy.bringCellToLife(new Cell(4, 5));
+		gameSpy.bringCellToLife(new Cell(5, 5));
+		gameSpy.bringCellToLife(new Cell(6, 5));
+		gameGrid.setRenderMode(GameGrid.RenderMode.RASTER);
+		
+		gameGrid.doTick();
+		BufferedImage frame = gameGrid.getFrame();
+		
+		assertEquals("Game spy tick count", 1, gameSpy.tickCounter);
+		assertEquals("Between cell after tick", BLACK_RGB, frame.getRGB(5*CELL_SIZE+5, 5*CELL_SIZE+5));
+		assertEquals("Cell above after tick", BLACK_RGB, frame.getRGB(5*CELL_SIZE+5, 4*CELL_SIZE+5));
+		assertEquals("Left cell after tick", WHITE_RGB, frame.getRGB(4*CELL_SIZE+5, 5*CELL_SIZE+5));
+		assertEquals("Right cell after tick", WHITE_RGB, frame.getRGB(6*CELL_SIZE+5, 5*CELL_SIZE+5));
+		assertEquals("Filled cell count", 0, gameGrid.filledCells.size());
+		assertEquals("Cleared cell count", 0, gameGrid.clearedCells.size());
+	}
+	
 	@Test
 	public void navigate_eventCausesGridOriginTranslation() {
 		
@@ -17,6 +17,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.contrib.java.lang.system.ExpectedSystemExit;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.*;
 
@@ -32,7 +33,8 @@ public class GameOfLifeTest {
 	
 	private class DummyGameGridSpy extends GameGrid {
 				
-		public int tickCounter = 0;
+		public volatile int tickCounter = 0;
+		public volatile int repaintCounter = 0;
 		public boolean hasBeenReset = false;
 		public boolean gridRedrawn = false;
 		
@@ -44,6 +46,14 @@ public class GameOfLifeTest {
 			tickCounter++;
 		}
 		
+		public void advance() {
+			tickCounter++;
+		}
+		
+		public void repaint() {
+			repaintCounter++;
+		}
+		
 		public void reset() {
 			hasBeenReset = true;
 		}
@@ -124,6 +134,51 @@ public class GameOfLifeTest {
 		assertEquals("Grid tick count change after stopping & waiting", gridTickCount, gameGridSpy.tickCounter);
 	}	
 
+	/**
+	 * Time that only moves when the render loop sleeps
+	 */
+	private static class FakeClock implements GameOfLife.Clock {
+		
+		long millis;
+		
+		public long currentTimeMillis() {
+			return millis;
+		}
+		
+		public void sleep(long millis) {
+			this.millis += millis;
+		}
+	}
+	
+	@Test
+	public void frameRenderer_framesCappedBelowGenerations() {
+		
+		FakeClock clock = new FakeClock();
+		gameOfLife.setClock(clock);
+		gameOfLife.setFrameRate(20);
+		GameOfLife.FrameRenderer frameRenderer = gameOfLife.new FrameRenderer();
+		int repaintCount = gameGridSpy.repaintCounter;
+		
+		// ten generations finish during each frame, for a second
+		while (clock.millis < 1000) {
+			for (int generation = 0; generation < 10; generation++)
+				gameOfLife.doTick();
+			frameRenderer.renderFrame();
+		}
+		
+		assertEquals("Frames capped at 20/s", 20, gameGridSpy.repaintCounter - repaintCount);
+		assertEquals("Generations not held back by frames", 200, gameOfLife.getGenerationCount());
+		
+		frameRenderer.renderFrame();
+		assertEquals("No frame without a new generation", 20, gameGridSpy.repaintCounter - repaintCount);
+		assertEquals("Frame slept out anyway", 1050, clock.millis);
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void setFrameRate_zeroRejected() {
+		gameOfLife.setFrameRate(0);
+	}
+	
 	@Test
 	public void resetButton_pushCausesReturnToDefaults() throws Exception {
 		
@@ -142,6 +197,27 @@ public class GameOfLifeTest {
 		
 	}
 	
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+    
+	@Test
+	public void saveButton_snapshotLoadsBackWithGeneration() throws Exception {
+		
+		Button saveButton = TestUtil.getPrivateField(gameOfLife, "saveButton");
+		gameOfLife.setSnapshotFile(tempFolder.newFile("saved.snapshot").toPath());
+		game.bringCellToLife(new Cell(3, 4));
+		game.tick();
+		game.bringCellToLife(new Cell(5, 6));
+		
+		gameOfLife.actionPerformed(new ActionEvent(saveButton, new Object().hashCode(), "Save"));
+		game.reset();
+		gameOfLife.loadSnapshot();
+		
+		assertTrue("Saved cell loaded", game.isCellAlive(new Cell(5, 6)));
+		assertEquals("Game generation", 1, game.getGeneration());
+		assertEquals("Generation count from snapshot", 1, gameOfLife.getGenerationCount());
+	}
+	
 	@Test
 	public void main_frameCreatedWithGameInIt() {
 		